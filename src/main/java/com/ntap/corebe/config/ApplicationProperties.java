@@ -1,6 +1,9 @@
 package com.ntap.corebe.config;
 
+import javax.validation.Valid;
+import javax.validation.constraints.Max;
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
 
 /**
  * Properties specific to Corebe.
@@ -9,4 +12,422 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
  * See {@link tech.jhipster.config.JHipsterProperties} for a good example.
  */
 @ConfigurationProperties(prefix = "application", ignoreUnknownFields = false)
-public class ApplicationProperties {}
+@Validated
+public class ApplicationProperties {
+
+    private final Cache cache = new Cache();
+
+    @Valid
+    private final Bulk bulk = new Bulk();
+
+    private final Outbox outbox = new Outbox();
+
+    private final Kafka kafka = new Kafka();
+
+    public Cache getCache() {
+        return cache;
+    }
+
+    public Bulk getBulk() {
+        return bulk;
+    }
+
+    public Outbox getOutbox() {
+        return outbox;
+    }
+
+    public Kafka getKafka() {
+        return kafka;
+    }
+
+    /**
+     * The {@code /api/corebe-kafka} endpoints.
+     */
+    public static class Kafka {
+
+        private int maxInFlightPublishes = 1_000;
+
+        private int maxBatchSize = 1_000;
+
+        private int fanOutBufferSize = 1_024;
+
+        private int maxStreams = 256;
+
+        private int maxQueuedRecords = 512;
+
+        private int maxFrameRecords = 500;
+
+        private int maxFrameLength = 64 * 1_024;
+
+        private long heartbeatIntervalMs = 15_000;
+
+        /**
+         * @return the number of publishes awaiting their broker acknowledgement, above which publishes are rejected.
+         */
+        public int getMaxInFlightPublishes() {
+            return maxInFlightPublishes;
+        }
+
+        public void setMaxInFlightPublishes(int maxInFlightPublishes) {
+            this.maxInFlightPublishes = maxInFlightPublishes;
+        }
+
+        /**
+         * @return the number of records of a {@code /publish} batch, above which the batch is rejected.
+         */
+        public int getMaxBatchSize() {
+            return maxBatchSize;
+        }
+
+        public void setMaxBatchSize(int maxBatchSize) {
+            this.maxBatchSize = maxBatchSize;
+        }
+
+        /**
+         * @return the number of records buffered by each consumer shared by the {@code /consume} subscribers.
+         */
+        public int getFanOutBufferSize() {
+            return fanOutBufferSize;
+        }
+
+        public void setFanOutBufferSize(int fanOutBufferSize) {
+            this.fanOutBufferSize = fanOutBufferSize;
+        }
+
+        /**
+         * @return the number of {@code /consume} subscribers, above which subscriptions are rejected.
+         */
+        public int getMaxStreams() {
+            return maxStreams;
+        }
+
+        public void setMaxStreams(int maxStreams) {
+            this.maxStreams = maxStreams;
+        }
+
+        /**
+         * @return the number of records a {@code /consume} subscriber can fall behind its shared consumer before it is
+         * evicted.
+         */
+        public int getMaxQueuedRecords() {
+            return maxQueuedRecords;
+        }
+
+        public void setMaxQueuedRecords(int maxQueuedRecords) {
+            this.maxQueuedRecords = maxQueuedRecords;
+        }
+
+        /**
+         * @return the number of records, above which a batched {@code /consume} frame is split.
+         */
+        public int getMaxFrameRecords() {
+            return maxFrameRecords;
+        }
+
+        public void setMaxFrameRecords(int maxFrameRecords) {
+            this.maxFrameRecords = maxFrameRecords;
+        }
+
+        /**
+         * @return the total length of the values, above which a batched {@code /consume} frame is split.
+         */
+        public int getMaxFrameLength() {
+            return maxFrameLength;
+        }
+
+        public void setMaxFrameLength(int maxFrameLength) {
+            this.maxFrameLength = maxFrameLength;
+        }
+
+        /**
+         * @return the idle time after which a {@code /consume} stream gets a heartbeat comment.
+         */
+        public long getHeartbeatIntervalMs() {
+            return heartbeatIntervalMs;
+        }
+
+        public void setHeartbeatIntervalMs(long heartbeatIntervalMs) {
+            this.heartbeatIntervalMs = heartbeatIntervalMs;
+        }
+    }
+
+    /**
+     * Transactional outbox of the {@code AppVersion} changes, relayed to Kafka.
+     */
+    public static class Outbox {
+
+        private boolean enabled = true;
+
+        private boolean relayEnabled = true;
+
+        private String topic = "corebe-app-version-changes";
+
+        private int batchSize = 500;
+
+        private long pollIntervalMs = 1_000;
+
+        private long sendTimeoutMs = 30_000;
+
+        /**
+         * @return whether the changes are written to the outbox.
+         */
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        /**
+         * @return whether this instance relays the outbox to Kafka.
+         */
+        public boolean isRelayEnabled() {
+            return relayEnabled;
+        }
+
+        public void setRelayEnabled(boolean relayEnabled) {
+            this.relayEnabled = relayEnabled;
+        }
+
+        public String getTopic() {
+            return topic;
+        }
+
+        public void setTopic(String topic) {
+            this.topic = topic;
+        }
+
+        /**
+         * @return the maximum number of events relayed per transaction.
+         */
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        /**
+         * @return the delay between two polls of the outbox, for the events not relayed right after their commit.
+         */
+        public long getPollIntervalMs() {
+            return pollIntervalMs;
+        }
+
+        public void setPollIntervalMs(long pollIntervalMs) {
+            this.pollIntervalMs = pollIntervalMs;
+        }
+
+        /**
+         * @return how long a batch waits for Kafka to acknowledge its records before it is retried.
+         */
+        public long getSendTimeoutMs() {
+            return sendTimeoutMs;
+        }
+
+        public void setSendTimeoutMs(long sendTimeoutMs) {
+            this.sendTimeoutMs = sendTimeoutMs;
+        }
+    }
+
+    /**
+     * Bulk writes of {@code AppVersion}s.
+     */
+    public static class Bulk {
+
+        /**
+         * The ids of the deleted appVersions are bound one parameter each, and PostgreSQL accepts at most 32767 bind
+         * parameters per statement, leaving room here for those of the criteria.
+         */
+        public static final int MAX_DELETED_ITEMS_LIMIT = 32_000;
+
+        private int chunkSize = 1_000;
+
+        private int maxItems = 50_000;
+
+        @Max(MAX_DELETED_ITEMS_LIMIT)
+        private int maxDeletedItems = 10_000;
+
+        private int importBatchSize = 10_000;
+
+        private long importProgressRows = 1_000_000;
+
+        /**
+         * @return the number of appVersions written per transaction.
+         */
+        public int getChunkSize() {
+            return chunkSize;
+        }
+
+        public void setChunkSize(int chunkSize) {
+            this.chunkSize = chunkSize;
+        }
+
+        /**
+         * @return the maximum number of appVersions of a single request.
+         */
+        public int getMaxItems() {
+            return maxItems;
+        }
+
+        public void setMaxItems(int maxItems) {
+            this.maxItems = maxItems;
+        }
+
+        /**
+         * @return the maximum number of appVersions a single delete by criteria may remove, at most
+         * {@link #MAX_DELETED_ITEMS_LIMIT}.
+         */
+        public int getMaxDeletedItems() {
+            return maxDeletedItems;
+        }
+
+        public void setMaxDeletedItems(int maxDeletedItems) {
+            this.maxDeletedItems = maxDeletedItems;
+        }
+
+        /**
+         * @return the number of imported appVersions sent to the database at a time.
+         */
+        public int getImportBatchSize() {
+            return importBatchSize;
+        }
+
+        public void setImportBatchSize(int importBatchSize) {
+            this.importBatchSize = importBatchSize;
+        }
+
+        /**
+         * @return the number of imported appVersions between two progress reports in the logs.
+         */
+        public long getImportProgressRows() {
+            return importProgressRows;
+        }
+
+        public void setImportProgressRows(long importProgressRows) {
+            this.importProgressRows = importProgressRows;
+        }
+    }
+
+    public static class Cache {
+
+        private final Region appVersionById = new Region(10_000, 3600);
+
+        private final Region appVersion = new Region(10_000, 3600);
+
+        private final Region appVersionQuery = new Region(1_000, 600);
+
+        private final ResultRegion appVersionQueryResults = new ResultRegion(1_000, 600, 1_000);
+
+        private final Invalidation invalidation = new Invalidation();
+
+        public Region getAppVersionById() {
+            return appVersionById;
+        }
+
+        /**
+         * @return the Hibernate second-level cache region of the {@code AppVersion} entity.
+         */
+        public Region getAppVersion() {
+            return appVersion;
+        }
+
+        /**
+         * @return the Hibernate query cache region of the {@code AppVersion} criteria queries.
+         */
+        public Region getAppVersionQuery() {
+            return appVersionQuery;
+        }
+
+        /**
+         * @return the result cache of {@code AppVersionQueryService}.
+         */
+        public ResultRegion getAppVersionQueryResults() {
+            return appVersionQueryResults;
+        }
+
+        public Invalidation getInvalidation() {
+            return invalidation;
+        }
+
+        /**
+         * Cross-instance invalidation of the local caches over Kafka.
+         */
+        public static class Invalidation {
+
+            private boolean enabled = true;
+
+            private String topic = "corebe-app-version-invalidation";
+
+            public boolean isEnabled() {
+                return enabled;
+            }
+
+            public void setEnabled(boolean enabled) {
+                this.enabled = enabled;
+            }
+
+            public String getTopic() {
+                return topic;
+            }
+
+            public void setTopic(String topic) {
+                this.topic = topic;
+            }
+        }
+
+        /**
+         * Sizing and expiry of a single local cache.
+         */
+        public static class Region {
+
+            private long maxEntries;
+
+            private long timeToLiveSeconds;
+
+            public Region(long maxEntries, long timeToLiveSeconds) {
+                this.maxEntries = maxEntries;
+                this.timeToLiveSeconds = timeToLiveSeconds;
+            }
+
+            public long getMaxEntries() {
+                return maxEntries;
+            }
+
+            public void setMaxEntries(long maxEntries) {
+                this.maxEntries = maxEntries;
+            }
+
+            public long getTimeToLiveSeconds() {
+                return timeToLiveSeconds;
+            }
+
+            public void setTimeToLiveSeconds(long timeToLiveSeconds) {
+                this.timeToLiveSeconds = timeToLiveSeconds;
+            }
+        }
+
+        /**
+         * A cache of query results, which also bounds the number of rows a single entry may hold.
+         */
+        public static class ResultRegion extends Region {
+
+            private int maxResultSize;
+
+            public ResultRegion(long maxEntries, long timeToLiveSeconds, int maxResultSize) {
+                super(maxEntries, timeToLiveSeconds);
+                this.maxResultSize = maxResultSize;
+            }
+
+            public int getMaxResultSize() {
+                return maxResultSize;
+            }
+
+            public void setMaxResultSize(int maxResultSize) {
+                this.maxResultSize = maxResultSize;
+            }
+        }
+    }
+}
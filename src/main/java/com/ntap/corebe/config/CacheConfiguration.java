@@ -0,0 +1,87 @@
+package com.ntap.corebe.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.ntap.corebe.repository.AppVersionRepository;
+import com.ntap.corebe.service.AppVersionQueryService;
+import com.ntap.corebe.service.AppVersionService;
+import java.util.OptionalLong;
+import java.util.concurrent.TimeUnit;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.spi.RegionFactory;
+import org.springframework.boot.autoconfigure.cache.JCacheManagerCustomizer;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * Local caches, backed by Caffeine (W-TinyLFU eviction) through its JCache provider.
+ * <p>
+ * The same JCache manager holds the Spring caches and the Hibernate second-level and query cache regions, which all
+ * have to be declared here: {@code hibernate.javax.cache.missing_cache_strategy} is set to {@code fail}.
+ * <p>
+ * Caching advice runs before the transactional advice, so that a cache hit neither opens a transaction nor borrows
+ * a connection from the pool. Statistics are enabled on every cache, so that Spring Boot binds them to Micrometer as
+ * {@code cache.gets}, {@code cache.puts} and {@code cache.evictions}.
+ */
+@Configuration
+@EnableCaching(order = Ordered.HIGHEST_PRECEDENCE)
+public class CacheConfiguration {
+
+    private final ApplicationProperties.Cache cacheProperties;
+
+    public CacheConfiguration(ApplicationProperties applicationProperties) {
+        this.cacheProperties = applicationProperties.getCache();
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer hibernatePropertiesCustomizer(javax.cache.CacheManager cacheManager) {
+        return hibernateProperties -> hibernateProperties.put(ConfigSettings.CACHE_MANAGER, cacheManager);
+    }
+
+    @Bean
+    public JCacheManagerCustomizer cacheManagerCustomizer() {
+        return cm -> {
+            createCache(cm, AppVersionService.APP_VERSION_BY_ID_CACHE, cacheProperties.getAppVersionById());
+            createCache(cm, AppVersionQueryService.APP_VERSION_QUERY_RESULTS_CACHE, cacheProperties.getAppVersionQueryResults());
+            createCache(cm, com.ntap.corebe.domain.AppVersion.class.getName(), cacheProperties.getAppVersion());
+            createCache(cm, AppVersionRepository.APP_VERSION_QUERY_CACHE, cacheProperties.getAppVersionQuery());
+            createCache(cm, RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME, cacheProperties.getAppVersionQuery());
+            createTimestampsCache(cm);
+        };
+    }
+
+    /**
+     * The update timestamps region must never expire nor evict entries before the query results depending on them,
+     * and only holds one entry per table, so it is left unbounded.
+     */
+    private void createTimestampsCache(javax.cache.CacheManager cm) {
+        String cacheName = RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME;
+        javax.cache.Cache<Object, Object> cache = cm.getCache(cacheName);
+        if (cache != null) {
+            cache.clear();
+        } else {
+            CaffeineConfiguration<Object, Object> caffeineConfiguration = new CaffeineConfiguration<>();
+            caffeineConfiguration.setStatisticsEnabled(true);
+            cm.createCache(cacheName, caffeineConfiguration);
+        }
+    }
+
+    private void createCache(javax.cache.CacheManager cm, String cacheName, ApplicationProperties.Cache.Region region) {
+        javax.cache.Cache<Object, Object> cache = cm.getCache(cacheName);
+        if (cache != null) {
+            cache.clear();
+        } else {
+            cm.createCache(cacheName, jcacheConfiguration(region));
+        }
+    }
+
+    private static javax.cache.configuration.Configuration<Object, Object> jcacheConfiguration(ApplicationProperties.Cache.Region region) {
+        CaffeineConfiguration<Object, Object> caffeineConfiguration = new CaffeineConfiguration<>();
+        caffeineConfiguration.setMaximumSize(OptionalLong.of(region.getMaxEntries()));
+        caffeineConfiguration.setExpireAfterWrite(OptionalLong.of(TimeUnit.SECONDS.toNanos(region.getTimeToLiveSeconds())));
+        caffeineConfiguration.setStatisticsEnabled(true);
+        return caffeineConfiguration;
+    }
+}
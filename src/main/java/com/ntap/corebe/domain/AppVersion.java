@@ -1,23 +1,29 @@
 package com.ntap.corebe.domain;
 
 import com.ntap.corebe.domain.enumeration.AppVersionType;
+import com.ntap.corebe.domain.id.TimeOrderedUuidGenerator;
 import java.io.Serializable;
 import java.time.Instant;
 import java.time.ZonedDateTime;
 import java.util.UUID;
 import javax.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.GenericGenerator;
 
 /**
  * A AppVersion.
  */
 @Entity
 @Table(name = "app_version")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class AppVersion implements Serializable {
 
     private static final long serialVersionUID = 1L;
 
     @Id
-    @GeneratedValue
+    @GeneratedValue(generator = TimeOrderedUuidGenerator.NAME)
+    @GenericGenerator(name = TimeOrderedUuidGenerator.NAME, strategy = TimeOrderedUuidGenerator.STRATEGY)
     @Column(name = "id")
     private UUID id;
 
@@ -55,6 +61,13 @@ public class AppVersion implements Serializable {
     @Column(name = "last_modified_date")
     private Instant lastModifiedDate;
 
+    /**
+     * Optimistic locking version, incremented by every update and exposed as the ETag of the appVersion.
+     */
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
     // jhipster-needle-entity-add-field - JHipster will add fields here
 
     public UUID getId() {
@@ -213,6 +226,19 @@ public class AppVersion implements Serializable {
         this.lastModifiedDate = lastModifiedDate;
     }
 
+    public Long getVersion() {
+        return this.version;
+    }
+
+    public AppVersion version(Long version) {
+        this.setVersion(version);
+        return this;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     // jhipster-needle-entity-add-getters-setters - JHipster will add getters and setters here
 
     @Override
@@ -248,6 +274,7 @@ public class AppVersion implements Serializable {
             ", createdDate='" + getCreatedDate() + "'" +
             ", lastModifiedBy='" + getLastModifiedBy() + "'" +
             ", lastModifiedDate='" + getLastModifiedDate() + "'" +
+            ", version=" + getVersion() +
             "}";
     }
 }
@@ -0,0 +1,123 @@
+package com.ntap.corebe.domain;
+
+import java.io.Serializable;
+import java.time.Instant;
+import java.util.UUID;
+import javax.persistence.*;
+import org.hibernate.annotations.Type;
+
+/**
+ * A change of an {@link AppVersion}, written in the same transaction as the change itself and deleted once it has
+ * been relayed to Kafka.
+ */
+@Entity
+@Table(name = "app_version_outbox_event")
+public class AppVersionOutboxEvent implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Assigned by the database when the row is inserted, unlike pooled sequences, so that the events of an appVersion
+     * are numbered in the order their changes are committed.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id")
+    private Long id;
+
+    @Column(name = "aggregate_id", nullable = false)
+    private UUID aggregateId;
+
+    @Lob
+    @Type(type = "org.hibernate.type.TextType")
+    @Column(name = "payload", nullable = false)
+    private String payload;
+
+    @Column(name = "created_date", nullable = false)
+    private Instant createdDate;
+
+    public Long getId() {
+        return this.id;
+    }
+
+    public AppVersionOutboxEvent id(Long id) {
+        this.setId(id);
+        return this;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    /**
+     * @return the id of the changed appVersion, which is the key of the Kafka record.
+     */
+    public UUID getAggregateId() {
+        return this.aggregateId;
+    }
+
+    public AppVersionOutboxEvent aggregateId(UUID aggregateId) {
+        this.setAggregateId(aggregateId);
+        return this;
+    }
+
+    public void setAggregateId(UUID aggregateId) {
+        this.aggregateId = aggregateId;
+    }
+
+    /**
+     * @return the JSON value of the Kafka record.
+     */
+    public String getPayload() {
+        return this.payload;
+    }
+
+    public AppVersionOutboxEvent payload(String payload) {
+        this.setPayload(payload);
+        return this;
+    }
+
+    public void setPayload(String payload) {
+        this.payload = payload;
+    }
+
+    public Instant getCreatedDate() {
+        return this.createdDate;
+    }
+
+    public AppVersionOutboxEvent createdDate(Instant createdDate) {
+        this.setCreatedDate(createdDate);
+        return this;
+    }
+
+    public void setCreatedDate(Instant createdDate) {
+        this.createdDate = createdDate;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof AppVersionOutboxEvent)) {
+            return false;
+        }
+        return id != null && id.equals(((AppVersionOutboxEvent) o).id);
+    }
+
+    @Override
+    public int hashCode() {
+        // see https://vladmihalcea.com/how-to-implement-equals-and-hashcode-using-the-jpa-entity-identifier/
+        return getClass().hashCode();
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "AppVersionOutboxEvent{" +
+            "id=" + getId() +
+            ", aggregateId=" + getAggregateId() +
+            ", createdDate='" + getCreatedDate() + "'" +
+            "}";
+    }
+}
@@ -0,0 +1,26 @@
+package com.ntap.corebe.repository;
+
+import com.ntap.corebe.domain.AppVersionOutboxEvent;
+import java.util.List;
+import javax.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.*;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Spring Data SQL repository for the AppVersionOutboxEvent entity.
+ */
+@SuppressWarnings("unused")
+@Repository
+public interface AppVersionOutboxEventRepository
+    extends AppVersionOutboxEventRepositoryWithBatchInsert, JpaRepository<AppVersionOutboxEvent, Long> {
+    /**
+     * Find and lock the oldest events, so that a concurrent relay waits for them to be relayed instead of relaying the
+     * following events of the same appVersions first.
+     *
+     * @param pageable the maximum number of events.
+     * @return the oldest events, in order.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    List<AppVersionOutboxEvent> findAllByOrderByIdAsc(Pageable pageable);
+}
@@ -0,0 +1,16 @@
+package com.ntap.corebe.repository;
+
+import com.ntap.corebe.domain.AppVersionOutboxEvent;
+import java.util.List;
+
+/**
+ * Batched insertion of {@link AppVersionOutboxEvent}s, whose identity ids keep Hibernate from batching their inserts.
+ */
+public interface AppVersionOutboxEventRepositoryWithBatchInsert {
+    /**
+     * Insert the events, in order, with a single JDBC batch.
+     *
+     * @param events the events to insert, without id.
+     */
+    void insertAll(List<AppVersionOutboxEvent> events);
+}
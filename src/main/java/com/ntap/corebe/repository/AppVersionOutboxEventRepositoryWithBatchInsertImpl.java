@@ -0,0 +1,45 @@
+package com.ntap.corebe.repository;
+
+import com.ntap.corebe.domain.AppVersionOutboxEvent;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.ZoneOffset;
+import java.util.Calendar;
+import java.util.List;
+import java.util.TimeZone;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import org.hibernate.Session;
+
+public class AppVersionOutboxEventRepositoryWithBatchInsertImpl implements AppVersionOutboxEventRepositoryWithBatchInsert {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public void insertAll(List<AppVersionOutboxEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        entityManager
+            .unwrap(Session.class)
+            .doWork(
+                connection -> {
+                    Calendar utc = Calendar.getInstance(TimeZone.getTimeZone(ZoneOffset.UTC));
+                    try (
+                        PreparedStatement statement = connection.prepareStatement(
+                            "insert into app_version_outbox_event (aggregate_id, payload, created_date) values (?, ?, ?)"
+                        )
+                    ) {
+                        for (AppVersionOutboxEvent event : events) {
+                            statement.setObject(1, event.getAggregateId());
+                            statement.setString(2, event.getPayload());
+                            statement.setTimestamp(3, Timestamp.from(event.getCreatedDate()), utc);
+                            statement.addBatch();
+                        }
+                        statement.executeBatch();
+                    }
+                }
+            );
+    }
+}
@@ -1,13 +1,80 @@
 package com.ntap.corebe.repository;
 
 import com.ntap.corebe.domain.AppVersion;
+import com.ntap.corebe.domain.enumeration.AppVersionType;
+import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
+import javax.persistence.QueryHint;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.jpa.repository.*;
 import org.springframework.stereotype.Repository;
 
 /**
  * Spring Data SQL repository for the AppVersion entity.
+ * <p>
+ * The appVersions found by the list queries are read-only, even in a read-write transaction: they are neither
+ * snapshotted nor dirty checked, so that large results take less heap. Modify an appVersion found by id instead.
  */
 @SuppressWarnings("unused")
 @Repository
-public interface AppVersionRepository extends JpaRepository<AppVersion, UUID>, JpaSpecificationExecutor<AppVersion> {}
+public interface AppVersionRepository
+    extends
+        AppVersionRepositoryWithKeyset,
+        AppVersionRepositoryWithUpdate,
+        AppVersionRepositoryWithProjection,
+        AppVersionRepositoryWithStreaming,
+        AppVersionRepositoryWithBulkDelete,
+        AppVersionRepositoryWithImport,
+        JpaRepository<AppVersion, UUID>,
+        JpaSpecificationExecutor<AppVersion> {
+    /**
+     * Hibernate query cache region of the criteria queries below.
+     */
+    String APP_VERSION_QUERY_CACHE = "com.ntap.corebe.domain.AppVersion.query";
+
+    @Override
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_READONLY, value = "true"))
+    List<AppVersion> findAll();
+
+    @Override
+    @QueryHints(
+        {
+            @QueryHint(name = org.hibernate.jpa.QueryHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = org.hibernate.jpa.QueryHints.HINT_CACHE_REGION, value = APP_VERSION_QUERY_CACHE),
+            @QueryHint(name = org.hibernate.jpa.QueryHints.HINT_READONLY, value = "true"),
+        }
+    )
+    List<AppVersion> findAll(Specification<AppVersion> spec);
+
+    @Override
+    @QueryHints(
+        {
+            @QueryHint(name = org.hibernate.jpa.QueryHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = org.hibernate.jpa.QueryHints.HINT_CACHE_REGION, value = APP_VERSION_QUERY_CACHE),
+            @QueryHint(name = org.hibernate.jpa.QueryHints.HINT_READONLY, value = "true"),
+        }
+    )
+    Page<AppVersion> findAll(Specification<AppVersion> spec, Pageable pageable);
+
+    @Override
+    @QueryHints(
+        {
+            @QueryHint(name = org.hibernate.jpa.QueryHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = org.hibernate.jpa.QueryHints.HINT_CACHE_REGION, value = APP_VERSION_QUERY_CACHE),
+        }
+    )
+    long count(Specification<AppVersion> spec);
+
+    /**
+     * Find the highest fully-versioned (major, minor and patch all set) appVersion of the given type.
+     *
+     * @param type the type of the appVersion.
+     * @return the highest appVersion of that type, if any.
+     */
+    Optional<AppVersion> findFirstByTypeAndMajorNotNullAndMinorNotNullAndPatchNotNullOrderByMajorDescMinorDescPatchDesc(
+        AppVersionType type
+    );
+}
@@ -0,0 +1,34 @@
+package com.ntap.corebe.repository;
+
+import com.ntap.corebe.domain.AppVersion;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Set-based deletion of the {@link AppVersion}s matching a specification, without loading them.
+ */
+public interface AppVersionRepositoryWithBulkDelete {
+    /**
+     * Find and lock the ids of the appVersions matching the specification, so that they can neither change nor be
+     * deleted by another transaction until the current one completes.
+     *
+     * @param specification the filters the appVersions should match.
+     * @param limit the maximum number of ids to return.
+     * @return the ids of the matching appVersions.
+     */
+    List<UUID> findIdsForDelete(Specification<AppVersion> specification, int limit);
+
+    /**
+     * Delete the appVersions matching the specification with a single {@code DELETE} statement, restricted to the
+     * given ids so that rows created since they were found are left alone.
+     * <p>
+     * Hibernate evicts the second-level and query caches of {@link AppVersion} when the transaction completes.
+     *
+     * @param specification the filters the appVersions should match.
+     * @param ids the ids found by {@link #findIdsForDelete(Specification, int)}.
+     * @return the number of deleted appVersions.
+     */
+    int deleteAllMatching(Specification<AppVersion> specification, Collection<UUID> ids);
+}
@@ -0,0 +1,54 @@
+package com.ntap.corebe.repository;
+
+import com.ntap.corebe.domain.AppVersion;
+import com.ntap.corebe.domain.AppVersion_;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import javax.persistence.EntityManager;
+import javax.persistence.LockModeType;
+import javax.persistence.PersistenceContext;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaDelete;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import org.springframework.data.jpa.domain.Specification;
+
+public class AppVersionRepositoryWithBulkDeleteImpl implements AppVersionRepositoryWithBulkDelete {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<UUID> findIdsForDelete(Specification<AppVersion> specification, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<UUID> query = cb.createQuery(UUID.class);
+        Root<AppVersion> root = query.from(AppVersion.class);
+        Predicate predicate = specification == null ? null : specification.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        // rows cannot be locked FOR UPDATE by a DISTINCT query
+        query.distinct(false);
+        return entityManager
+            .createQuery(query.select(root.get(AppVersion_.id)))
+            .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+            .setMaxResults(limit)
+            .getResultList();
+    }
+
+    @Override
+    public int deleteAllMatching(Specification<AppVersion> specification, Collection<UUID> ids) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaDelete<AppVersion> delete = cb.createCriteriaDelete(AppVersion.class);
+        Root<AppVersion> root = delete.from(AppVersion.class);
+        Predicate matching = root.get(AppVersion_.id).in(ids);
+        // the specification only uses the query for DISTINCT, which a DELETE has no use for
+        Predicate predicate = specification == null ? null : specification.toPredicate(root, cb.createQuery(), cb);
+        return entityManager.createQuery(delete.where(predicate == null ? matching : cb.and(predicate, matching))).executeUpdate();
+    }
+}
@@ -0,0 +1,26 @@
+package com.ntap.corebe.repository;
+
+import com.ntap.corebe.domain.AppVersion;
+import java.util.Iterator;
+import java.util.function.LongConsumer;
+
+/**
+ * High-throughput insertion of new {@link AppVersion}s, bypassing the Hibernate session.
+ */
+public interface AppVersionRepositoryWithImport {
+    /**
+     * Insert the appVersions as they are read from the iterator, through the {@code COPY} protocol on PostgreSQL and
+     * through JDBC batches of inserts on other databases.
+     * <p>
+     * At most {@code batchSize} rows are held in memory at a time, whatever the number of appVersions. The appVersions
+     * must have an id; their version is left to the column default. Since the rows bypass the session, the
+     * second-level and query caches of {@link AppVersion} are left stale.
+     *
+     * @param appVersions the appVersions to insert.
+     * @param batchSize the number of rows sent to the database at a time.
+     * @param progress called with the number of rows sent so far, after each full batch, once it is written: the
+     * connection may then run other statements in the transaction, which it cannot while a {@code COPY} is in progress.
+     * @return the number of inserted appVersions.
+     */
+    long importAll(Iterator<AppVersion> appVersions, int batchSize, LongConsumer progress);
+}
@@ -0,0 +1,170 @@
+package com.ntap.corebe.repository;
+
+import com.ntap.corebe.domain.AppVersion;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.Calendar;
+import java.util.Iterator;
+import java.util.TimeZone;
+import java.util.function.LongConsumer;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.postgresql.copy.CopyManager;
+
+public class AppVersionRepositoryWithImportImpl implements AppVersionRepositoryWithImport {
+
+    private static final String COLUMNS =
+        "id, major, minor, patch, release_date, description, location, type, " +
+        "created_by, created_date, last_modified_by, last_modified_date";
+
+    private static final String COPY = "copy app_version (" + COLUMNS + ") from stdin with (format csv)";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public long importAll(Iterator<AppVersion> appVersions, int batchSize, LongConsumer progress) {
+        return entityManager
+            .unwrap(Session.class)
+            .doReturningWork(
+                connection ->
+                    connection.isWrapperFor(PGConnection.class)
+                        ? copy(connection.unwrap(PGConnection.class), appVersions, batchSize, progress)
+                        : insert(connection, appVersions, batchSize, progress)
+            );
+    }
+
+    /**
+     * Copy the rows with a {@code COPY} per batch, which is over before the progress is reported: the connection cannot
+     * run any other statement while a {@code COPY} is in progress.
+     */
+    private long copy(PGConnection connection, Iterator<AppVersion> appVersions, int batchSize, LongConsumer progress)
+        throws SQLException {
+        CopyManager copyManager = connection.getCopyAPI();
+        StringBuilder rows = new StringBuilder();
+        long count = 0;
+        while (appVersions.hasNext()) {
+            appendCsv(rows, appVersions.next());
+            if (++count % batchSize == 0) {
+                copy(copyManager, rows);
+                progress.accept(count);
+            }
+        }
+        if (count % batchSize != 0) {
+            copy(copyManager, rows);
+        }
+        return count;
+    }
+
+    private static void copy(CopyManager copyManager, StringBuilder rows) throws SQLException {
+        CopyIn copyIn = copyManager.copyIn(COPY);
+        try {
+            byte[] bytes = rows.toString().getBytes(StandardCharsets.UTF_8);
+            copyIn.writeToCopy(bytes, 0, bytes.length);
+            copyIn.endCopy();
+            rows.setLength(0);
+        } finally {
+            if (copyIn.isActive()) {
+                copyIn.cancelCopy();
+            }
+        }
+    }
+
+    /**
+     * Append a row in the CSV format of {@code COPY}, where an unquoted empty value is {@code NULL} and a quoted one
+     * is an empty string.
+     */
+    private static void appendCsv(StringBuilder rows, AppVersion appVersion) {
+        rows
+            .append(appVersion.getId())
+            .append(',')
+            .append(nullToEmpty(appVersion.getMajor()))
+            .append(',')
+            .append(nullToEmpty(appVersion.getMinor()))
+            .append(',')
+            .append(nullToEmpty(appVersion.getPatch()))
+            .append(',')
+            .append(nullToEmpty(utc(appVersion.getReleaseDate())))
+            .append(',');
+        appendQuoted(rows, appVersion.getDescription()).append(',');
+        appendQuoted(rows, appVersion.getLocation()).append(',');
+        appendQuoted(rows, appVersion.getType() == null ? null : appVersion.getType().name()).append(',');
+        appendQuoted(rows, appVersion.getCreatedBy()).append(',').append(nullToEmpty(utc(appVersion.getCreatedDate()))).append(',');
+        appendQuoted(rows, appVersion.getLastModifiedBy()).append(',').append(nullToEmpty(utc(appVersion.getLastModifiedDate())));
+        rows.append('\n');
+    }
+
+    private static StringBuilder appendQuoted(StringBuilder rows, String value) {
+        return value == null ? rows : rows.append('"').append(value.replace("\"", "\"\"")).append('"');
+    }
+
+    private static Object nullToEmpty(Object value) {
+        return value == null ? "" : value;
+    }
+
+    /**
+     * The timestamp as stored by Hibernate with {@code hibernate.jdbc.time_zone: UTC}.
+     */
+    private static LocalDateTime utc(ZonedDateTime value) {
+        return value == null ? null : utc(value.toInstant());
+    }
+
+    private static LocalDateTime utc(Instant value) {
+        return value == null ? null : LocalDateTime.ofInstant(value, ZoneOffset.UTC);
+    }
+
+    private long insert(Connection connection, Iterator<AppVersion> appVersions, int batchSize, LongConsumer progress)
+        throws SQLException {
+        Calendar utc = Calendar.getInstance(TimeZone.getTimeZone(ZoneOffset.UTC));
+        try (
+            PreparedStatement statement = connection.prepareStatement(
+                "insert into app_version (" + COLUMNS + ") values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)"
+            )
+        ) {
+            long count = 0;
+            while (appVersions.hasNext()) {
+                AppVersion appVersion = appVersions.next();
+                statement.setObject(1, appVersion.getId());
+                statement.setObject(2, appVersion.getMajor(), Types.INTEGER);
+                statement.setObject(3, appVersion.getMinor(), Types.INTEGER);
+                statement.setObject(4, appVersion.getPatch(), Types.INTEGER);
+                setTimestamp(statement, 5, appVersion.getReleaseDate() == null ? null : appVersion.getReleaseDate().toInstant(), utc);
+                statement.setString(6, appVersion.getDescription());
+                statement.setString(7, appVersion.getLocation());
+                statement.setString(8, appVersion.getType() == null ? null : appVersion.getType().name());
+                statement.setString(9, appVersion.getCreatedBy());
+                setTimestamp(statement, 10, appVersion.getCreatedDate(), utc);
+                statement.setString(11, appVersion.getLastModifiedBy());
+                setTimestamp(statement, 12, appVersion.getLastModifiedDate(), utc);
+                statement.addBatch();
+                if (++count % batchSize == 0) {
+                    statement.executeBatch();
+                    progress.accept(count);
+                }
+            }
+            if (count % batchSize != 0) {
+                statement.executeBatch();
+            }
+            return count;
+        }
+    }
+
+    private static void setTimestamp(PreparedStatement statement, int index, Instant value, Calendar utc) throws SQLException {
+        if (value == null) {
+            statement.setNull(index, Types.TIMESTAMP);
+        } else {
+            statement.setTimestamp(index, Timestamp.from(value), utc);
+        }
+    }
+}
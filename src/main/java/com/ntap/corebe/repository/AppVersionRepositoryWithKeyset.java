@@ -0,0 +1,25 @@
+package com.ntap.corebe.repository;
+
+import com.ntap.corebe.domain.AppVersion;
+import java.util.List;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Keyset (seek) pagination of {@link AppVersion}s, ordered by (major, minor, patch, id).
+ * <p>
+ * A null major, minor or patch sorts as {@link #NULL_VERSION}, which is how the keyset index of the
+ * {@code app_version} table is defined as well.
+ */
+public interface AppVersionRepositoryWithKeyset {
+    int NULL_VERSION = -1;
+
+    /**
+     * Find the first appVersions matching the specification which come strictly after a position.
+     *
+     * @param specification the filters the appVersions should match.
+     * @param after the position to start after (only its major, minor, patch and id are used), or {@code null} for the first page.
+     * @param limit the maximum number of appVersions to return.
+     * @return the matching appVersions, read-only, in (major, minor, patch, id) order.
+     */
+    List<AppVersion> findAllAfter(Specification<AppVersion> specification, AppVersion after, int limit);
+}
@@ -0,0 +1,74 @@
+package com.ntap.corebe.repository;
+
+import com.ntap.corebe.domain.AppVersion;
+import com.ntap.corebe.domain.AppVersion_;
+import java.util.List;
+import java.util.UUID;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Expression;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import org.hibernate.jpa.QueryHints;
+import org.springframework.data.jpa.domain.Specification;
+
+public class AppVersionRepositoryWithKeysetImpl implements AppVersionRepositoryWithKeyset {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<AppVersion> findAllAfter(Specification<AppVersion> specification, AppVersion after, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<AppVersion> query = cb.createQuery(AppVersion.class);
+        Root<AppVersion> root = query.from(AppVersion.class);
+        Expression<Integer> major = cb.coalesce(root.get(AppVersion_.major), NULL_VERSION);
+        Expression<Integer> minor = cb.coalesce(root.get(AppVersion_.minor), NULL_VERSION);
+        Expression<Integer> patch = cb.coalesce(root.get(AppVersion_.patch), NULL_VERSION);
+        Path<UUID> id = root.get(AppVersion_.id);
+
+        Predicate predicate = specification == null ? null : specification.toPredicate(root, query, cb);
+        // without any join, DISTINCT cannot remove rows, and it would require the ORDER BY expressions in the select list
+        query.distinct(false);
+        if (after != null) {
+            Predicate seek = seekAfter(cb, major, minor, patch, id, after);
+            predicate = predicate == null ? seek : cb.and(predicate, seek);
+        }
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.select(root).orderBy(cb.asc(major), cb.asc(minor), cb.asc(patch), cb.asc(id));
+        return entityManager.createQuery(query).setMaxResults(limit).setHint(QueryHints.HINT_READONLY, true).getResultList();
+    }
+
+    /**
+     * {@code (major, minor, patch, id) > (after...)}, expanded since JPA has no row value comparison. The redundant
+     * leading {@code major >= after.major} lets the database start an index range scan at the position.
+     */
+    private static Predicate seekAfter(
+        CriteriaBuilder cb,
+        Expression<Integer> major,
+        Expression<Integer> minor,
+        Expression<Integer> patch,
+        Path<UUID> id,
+        AppVersion after
+    ) {
+        int afterMajor = valueOf(after.getMajor());
+        int afterMinor = valueOf(after.getMinor());
+        int afterPatch = valueOf(after.getPatch());
+        Predicate afterPatchOrId = cb.or(
+            cb.greaterThan(patch, afterPatch),
+            cb.and(cb.equal(patch, afterPatch), cb.greaterThan(id, after.getId()))
+        );
+        Predicate afterMinorOrPatch = cb.or(cb.greaterThan(minor, afterMinor), cb.and(cb.equal(minor, afterMinor), afterPatchOrId));
+        Predicate afterMajorOrMinor = cb.or(cb.greaterThan(major, afterMajor), cb.and(cb.equal(major, afterMajor), afterMinorOrPatch));
+        return cb.and(cb.greaterThanOrEqualTo(major, afterMajor), afterMajorOrMinor);
+    }
+
+    private static int valueOf(Integer version) {
+        return version == null ? NULL_VERSION : version;
+    }
+}
@@ -0,0 +1,23 @@
+package com.ntap.corebe.repository;
+
+import com.ntap.corebe.domain.AppVersion;
+import java.util.List;
+import javax.persistence.Tuple;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Projection queries of {@link AppVersion}s, selecting only some of their fields.
+ */
+public interface AppVersionRepositoryWithProjection {
+    /**
+     * Find the given fields of the appVersions matching the specification.
+     * <p>
+     * No entity is hydrated or managed: each row is returned as a tuple, whose elements are aliased by field name.
+     *
+     * @param specification the filters the appVersions should match.
+     * @param fields the names of the fields to select.
+     * @return the selected fields of the matching appVersions.
+     * @throws IllegalArgumentException if a field is not a basic attribute of {@link AppVersion}.
+     */
+    List<Tuple> findAll(Specification<AppVersion> specification, List<String> fields);
+}
@@ -0,0 +1,42 @@
+package com.ntap.corebe.repository;
+
+import com.ntap.corebe.domain.AppVersion;
+import java.util.List;
+import java.util.stream.Collectors;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Tuple;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Selection;
+import javax.persistence.metamodel.EntityType;
+import org.springframework.data.jpa.domain.Specification;
+
+public class AppVersionRepositoryWithProjectionImpl implements AppVersionRepositoryWithProjection {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Tuple> findAll(Specification<AppVersion> specification, List<String> fields) {
+        EntityType<AppVersion> entityType = entityManager.getMetamodel().entity(AppVersion.class);
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<AppVersion> root = query.from(AppVersion.class);
+        List<Selection<?>> selections = fields
+            .stream()
+            // throws IllegalArgumentException if there is no such attribute
+            .map(field -> root.get(entityType.getSingularAttribute(field)).alias(field))
+            .collect(Collectors.toList());
+
+        Predicate predicate = specification == null ? null : specification.toPredicate(root, query, cb);
+        // without any join, DISTINCT cannot remove rows, but on a projection it would merge equal ones
+        query.distinct(false);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        return entityManager.createQuery(query.multiselect(selections)).getResultList();
+    }
+}
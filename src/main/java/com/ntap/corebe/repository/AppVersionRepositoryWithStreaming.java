@@ -0,0 +1,27 @@
+package com.ntap.corebe.repository;
+
+import com.ntap.corebe.domain.AppVersion;
+import java.util.stream.Stream;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Constant-memory streaming of {@link AppVersion}s, for exports of the whole catalog.
+ */
+public interface AppVersionRepositoryWithStreaming {
+    /**
+     * JDBC fetch size of the streamed query.
+     */
+    int STREAM_FETCH_SIZE = 500;
+
+    /**
+     * Stream the appVersions matching the specification, fetched {@link #STREAM_FETCH_SIZE} rows at a time.
+     * <p>
+     * The appVersions are read by a stateless session, so that they are never kept in a persistence context nor
+     * snapshotted for dirty checking, and memory does not grow with the number of rows. The stream must be consumed and
+     * closed within a transaction, and does not see its unflushed changes.
+     *
+     * @param specification the filters the appVersions should match.
+     * @return the matching appVersions.
+     */
+    Stream<AppVersion> streamAll(Specification<AppVersion> specification);
+}
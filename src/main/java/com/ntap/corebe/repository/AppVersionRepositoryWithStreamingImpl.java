@@ -0,0 +1,49 @@
+package com.ntap.corebe.repository;
+
+import com.ntap.corebe.domain.AppVersion;
+import java.util.stream.Stream;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import org.hibernate.StatelessSession;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.springframework.data.jpa.domain.Specification;
+
+public class AppVersionRepositoryWithStreamingImpl implements AppVersionRepositoryWithStreaming {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Stream<AppVersion> streamAll(Specification<AppVersion> specification) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<AppVersion> query = cb.createQuery(AppVersion.class);
+        Root<AppVersion> root = query.from(AppVersion.class);
+        Predicate predicate = specification == null ? null : specification.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        // the stateless session reads through the connection of the current transaction, and has no persistence context
+        // nor second-level cache to fill with the whole catalog
+        SessionImplementor session = entityManager.unwrap(SessionImplementor.class);
+        StatelessSession statelessSession = session
+            .getFactory()
+            .withStatelessOptions()
+            .connection(session.connection())
+            .openStatelessSession();
+        try {
+            return statelessSession
+                .createQuery(query.select(root))
+                .setFetchSize(STREAM_FETCH_SIZE)
+                .setReadOnly(true)
+                .stream()
+                .onClose(statelessSession::close);
+        } catch (RuntimeException e) {
+            statelessSession.close();
+            throw e;
+        }
+    }
+}
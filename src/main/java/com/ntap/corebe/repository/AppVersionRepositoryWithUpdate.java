@@ -0,0 +1,55 @@
+package com.ntap.corebe.repository;
+
+import com.ntap.corebe.domain.AppVersion;
+import java.util.Optional;
+
+/**
+ * Single-statement, optionally conditional, updates and upserts of {@link AppVersion}s.
+ * <p>
+ * The appVersion is not loaded first: on PostgreSQL, an update is a single {@code UPDATE ... RETURNING} statement,
+ * and an upsert a single {@code INSERT ... ON CONFLICT DO UPDATE ... RETURNING} statement, which also increment the
+ * version of the appVersion. The statement bypasses the second-level and query caches, which
+ * the caller must evict once committed, and the appVersion it returns is not put in the second-level cache before.
+ */
+public interface AppVersionRepositoryWithUpdate {
+    /**
+     * Update all the fields of an appVersion.
+     *
+     * @param appVersion the id of the appVersion to update, and the new values of its fields.
+     * @param expectedVersion the version the appVersion must have, or {@code null} to update it whatever its version.
+     * @return the updated appVersion, or empty if there is no appVersion with that id.
+     * @throws org.springframework.orm.ObjectOptimisticLockingFailureException if the appVersion has another version.
+     */
+    Optional<AppVersion> update(AppVersion appVersion, Long expectedVersion);
+
+    /**
+     * Update the non-null fields of an appVersion.
+     * <p>
+     * Without any non-null field, no statement is run: the appVersion is returned unchanged, with its current version.
+     *
+     * @param appVersion the id of the appVersion to update, and the new values of the fields to update.
+     * @param expectedVersion the version the appVersion must have, or {@code null} to update it whatever its version.
+     * @return the updated appVersion, or empty if there is no appVersion with that id.
+     * @throws org.springframework.orm.ObjectOptimisticLockingFailureException if the appVersion has another version.
+     */
+    Optional<AppVersion> partialUpdate(AppVersion appVersion, Long expectedVersion);
+
+    /**
+     * Insert an appVersion, or update all the other fields of the appVersion with the same natural key
+     * (type, major, minor, patch) if there is one.
+     * <p>
+     * On H2, the upsert is a {@code MERGE} statement followed by a query of the appVersion.
+     *
+     * @param appVersion the id to insert the appVersion with, its natural key, and the values of its other fields.
+     * @return the inserted appVersion, with version 0, or the updated one.
+     */
+    AppVersion upsert(AppVersion appVersion);
+
+    /**
+     * @param appVersion the id of the appVersion to update, and the new values of the fields to update.
+     * @return whether a {@link #partialUpdate} of the appVersion changes any field of it.
+     */
+    static boolean hasPartialUpdate(AppVersion appVersion) {
+        return !AppVersionRepositoryWithUpdateImpl.updatedColumns(appVersion, true).isEmpty();
+    }
+}
@@ -0,0 +1,226 @@
+package com.ntap.corebe.repository;
+
+import com.ntap.corebe.domain.AppVersion;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import javax.persistence.CacheRetrieveMode;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import org.hibernate.CacheMode;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.dialect.PostgreSQL81Dialect;
+import org.hibernate.engine.spi.EntityEntry;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.query.NativeQuery;
+import org.hibernate.type.InstantType;
+import org.hibernate.type.StandardBasicTypes;
+import org.hibernate.type.Type;
+import org.hibernate.type.ZonedDateTimeType;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+public class AppVersionRepositoryWithUpdateImpl implements AppVersionRepositoryWithUpdate {
+
+    private static final List<String> NATURAL_KEY = List.of("type", "major", "minor", "patch");
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Optional<AppVersion> update(AppVersion appVersion, Long expectedVersion) {
+        return update(appVersion, expectedVersion, false);
+    }
+
+    @Override
+    public Optional<AppVersion> partialUpdate(AppVersion appVersion, Long expectedVersion) {
+        return update(appVersion, expectedVersion, true);
+    }
+
+    private Optional<AppVersion> update(AppVersion appVersion, Long expectedVersion, boolean partial) {
+        Map<String, Column> columns = updatedColumns(appVersion, partial);
+        if (columns.isEmpty()) {
+            return unchanged(appVersion, expectedVersion);
+        }
+        StringBuilder update = new StringBuilder("update app_version set ");
+        columns.keySet().forEach(column -> update.append(column).append(" = :").append(column).append(", "));
+        update.append("version = version + 1 where id = :id");
+        if (expectedVersion != null) {
+            update.append(" and version = :version");
+        }
+
+        SessionImplementor session = entityManager.unwrap(SessionImplementor.class);
+        EntityPersister persister = session.getFactory().getMetamodel().entityPersister(AppVersion.class);
+        AppVersion managed = (AppVersion) session
+            .getPersistenceContext()
+            .getEntity(session.generateEntityKey(appVersion.getId(), persister));
+        if (managed == null && session.getJdbcServices().getDialect() instanceof PostgreSQL81Dialect) {
+            NativeQuery<?> query = entityManager.createNativeQuery(update + " returning *", AppVersion.class).unwrap(NativeQuery.class);
+            // the returned row is not committed yet, so it must not reach the second-level cache
+            query.setCacheMode(CacheMode.IGNORE);
+            @SuppressWarnings("unchecked")
+            List<AppVersion> updated = (List<AppVersion>) bind(query, appVersion, expectedVersion, columns).getResultList();
+            return updated.isEmpty() ? checkConflict(appVersion, expectedVersion) : Optional.of(updated.get(0));
+        }
+
+        // the appVersion is already loaded in this session, or the database has no RETURNING clause
+        NativeQuery<?> query = entityManager.createNativeQuery(update.toString()).unwrap(NativeQuery.class);
+        if (bind(query, appVersion, expectedVersion, columns).executeUpdate() == 0) {
+            return checkConflict(appVersion, expectedVersion);
+        }
+        if (managed != null) {
+            entityManager.refresh(managed);
+            return Optional.of(managed);
+        }
+        // the second-level cache is only cleaned up once the transaction completes
+        Map<String, Object> bypassCache = Map.of(AvailableSettings.JPA_SHARED_CACHE_RETRIEVE_MODE, CacheRetrieveMode.BYPASS);
+        return Optional.ofNullable(entityManager.find(AppVersion.class, appVersion.getId(), bypassCache));
+    }
+
+    @Override
+    public AppVersion upsert(AppVersion appVersion) {
+        Map<String, Column> columns = updatedColumns(appVersion, false);
+        List<String> updated = columns.keySet().stream().filter(column -> !NATURAL_KEY.contains(column)).collect(Collectors.toList());
+        String insertColumns = "id, " + String.join(", ", columns.keySet()) + ", version";
+        String insertValues = ":id, " + columns.keySet().stream().map(column -> ":" + column).collect(Collectors.joining(", ")) + ", 0";
+
+        SessionImplementor session = entityManager.unwrap(SessionImplementor.class);
+        boolean postgresql = session.getJdbcServices().getDialect() instanceof PostgreSQL81Dialect;
+        String upsert;
+        if (postgresql) {
+            upsert =
+                "insert into app_version (" + insertColumns + ") values (" + insertValues + ") " +
+                "on conflict (type, major, minor, patch) do update set " +
+                updated.stream().map(column -> column + " = excluded." + column).collect(Collectors.joining(", ")) +
+                ", version = app_version.version + 1";
+        } else {
+            upsert =
+                "merge into app_version target using (select 1) source on (" +
+                NATURAL_KEY.stream().map(column -> "target." + column + " = :" + column).collect(Collectors.joining(" and ")) +
+                ") when matched then update set " +
+                updated.stream().map(column -> column + " = :" + column).collect(Collectors.joining(", ")) +
+                ", version = target.version + 1 when not matched then insert (" + insertColumns + ") values (" + insertValues + ")";
+        }
+
+        AppVersion managed = findManaged(session, appVersion);
+        if (managed == null && postgresql) {
+            NativeQuery<?> query = entityManager.createNativeQuery(upsert + " returning *", AppVersion.class).unwrap(NativeQuery.class);
+            // the returned row is not committed yet, so it must not reach the second-level cache
+            query.setCacheMode(CacheMode.IGNORE);
+            return (AppVersion) bind(query, appVersion, null, columns).getSingleResult();
+        }
+
+        // the appVersion is already loaded in this session, or the database has no RETURNING clause
+        bind(entityManager.createNativeQuery(upsert).unwrap(NativeQuery.class), appVersion, null, columns).executeUpdate();
+        if (managed != null) {
+            entityManager.refresh(managed);
+            return managed;
+        }
+        return entityManager
+            .createQuery(
+                "select appVersion from AppVersion appVersion where appVersion.type = :type " +
+                "and appVersion.major = :major and appVersion.minor = :minor and appVersion.patch = :patch",
+                AppVersion.class
+            )
+            .setParameter("type", appVersion.getType())
+            .setParameter("major", appVersion.getMajor())
+            .setParameter("minor", appVersion.getMinor())
+            .setParameter("patch", appVersion.getPatch())
+            .getSingleResult();
+    }
+
+    /**
+     * The appVersion with the natural key of the given one, if it is loaded in the session.
+     */
+    private static AppVersion findManaged(SessionImplementor session, AppVersion appVersion) {
+        for (Map.Entry<Object, EntityEntry> entry : session.getPersistenceContext().reentrantSafeEntityEntries()) {
+            if (entry.getKey() instanceof AppVersion) {
+                AppVersion candidate = (AppVersion) entry.getKey();
+                if (
+                    candidate.getType() == appVersion.getType() &&
+                    Objects.equals(candidate.getMajor(), appVersion.getMajor()) &&
+                    Objects.equals(candidate.getMinor(), appVersion.getMinor()) &&
+                    Objects.equals(candidate.getPatch(), appVersion.getPatch())
+                ) {
+                    return candidate;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * The current appVersion, for a partial update without any field, which neither changes it nor bumps its version.
+     */
+    private Optional<AppVersion> unchanged(AppVersion appVersion, Long expectedVersion) {
+        AppVersion current = entityManager.find(AppVersion.class, appVersion.getId());
+        if (current != null && expectedVersion != null && !expectedVersion.equals(current.getVersion())) {
+            throw new ObjectOptimisticLockingFailureException(AppVersion.class, appVersion.getId());
+        }
+        return Optional.ofNullable(current);
+    }
+
+    /**
+     * Tell a missing appVersion apart from a version conflict, once an update has matched no row.
+     */
+    private Optional<AppVersion> checkConflict(AppVersion appVersion, Long expectedVersion) {
+        if (expectedVersion != null) {
+            Long count = entityManager
+                .createQuery("select count(appVersion) from AppVersion appVersion where appVersion.id = :id", Long.class)
+                .setParameter("id", appVersion.getId())
+                .getSingleResult();
+            if (count > 0) {
+                throw new ObjectOptimisticLockingFailureException(AppVersion.class, appVersion.getId());
+            }
+        }
+        return Optional.empty();
+    }
+
+    private static NativeQuery<?> bind(NativeQuery<?> query, AppVersion appVersion, Long expectedVersion, Map<String, Column> columns) {
+        // flushes the pending changes of appVersions before the statement, and limits the cache eviction of an executeUpdate to them
+        query.addSynchronizedEntityClass(AppVersion.class);
+        query.setParameter("id", appVersion.getId());
+        if (expectedVersion != null) {
+            query.setParameter("version", expectedVersion);
+        }
+        columns.forEach((name, column) -> query.setParameter(name, column.value, column.type));
+        return query;
+    }
+
+    static Map<String, Column> updatedColumns(AppVersion appVersion, boolean partial) {
+        Map<String, Column> columns = new LinkedHashMap<>();
+        put(columns, partial, "major", appVersion.getMajor(), StandardBasicTypes.INTEGER);
+        put(columns, partial, "minor", appVersion.getMinor(), StandardBasicTypes.INTEGER);
+        put(columns, partial, "patch", appVersion.getPatch(), StandardBasicTypes.INTEGER);
+        put(columns, partial, "release_date", appVersion.getReleaseDate(), ZonedDateTimeType.INSTANCE);
+        put(columns, partial, "description", appVersion.getDescription(), StandardBasicTypes.STRING);
+        put(columns, partial, "location", appVersion.getLocation(), StandardBasicTypes.STRING);
+        put(columns, partial, "type", appVersion.getType() == null ? null : appVersion.getType().name(), StandardBasicTypes.STRING);
+        put(columns, partial, "created_by", appVersion.getCreatedBy(), StandardBasicTypes.STRING);
+        put(columns, partial, "created_date", appVersion.getCreatedDate(), InstantType.INSTANCE);
+        put(columns, partial, "last_modified_by", appVersion.getLastModifiedBy(), StandardBasicTypes.STRING);
+        put(columns, partial, "last_modified_date", appVersion.getLastModifiedDate(), InstantType.INSTANCE);
+        return columns;
+    }
+
+    private static void put(Map<String, Column> columns, boolean partial, String name, Object value, Type type) {
+        if (value != null || !partial) {
+            columns.put(name, new Column(value, type));
+        }
+    }
+
+    static final class Column {
+
+        private final Object value;
+
+        private final Type type;
+
+        private Column(Object value, Type type) {
+            this.value = value;
+            this.type = type;
+        }
+    }
+}
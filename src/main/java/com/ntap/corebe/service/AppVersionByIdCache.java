@@ -0,0 +1,93 @@
+package com.ntap.corebe.service;
+
+import com.ntap.corebe.domain.AppVersion;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Supplier;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+/**
+ * The {@link AppVersionService#APP_VERSION_BY_ID_CACHE} cache, which a read never fills with an appVersion evicted
+ * since the read started.
+ * <p>
+ * A read missing the cache may load the row committed before a write, and only put it once the write has evicted the
+ * cache on commit: the stale appVersion would then be served, with its version as ETag, until it expires. Every
+ * eviction therefore bumps the generation of a stripe of ids, and a read only puts what it loaded if the generation of
+ * its stripe has not changed meanwhile.
+ */
+@Component
+public class AppVersionByIdCache {
+
+    private static final int STRIPES = 256;
+
+    private final Cache cache;
+
+    /**
+     * The generation of each stripe of ids, guarded by the lock of the stripe.
+     */
+    private final long[] generations = new long[STRIPES];
+
+    private final Object[] locks = new Object[STRIPES];
+
+    public AppVersionByIdCache(CacheManager cacheManager) {
+        this.cache = cacheManager.getCache(AppVersionService.APP_VERSION_BY_ID_CACHE);
+        for (int stripe = 0; stripe < STRIPES; stripe++) {
+            locks[stripe] = new Object();
+        }
+    }
+
+    /**
+     * @param id the id of the appVersion.
+     * @return the cached appVersion, or empty if it is not cached.
+     */
+    public Optional<AppVersion> get(UUID id) {
+        return Optional.ofNullable(cache.get(id, AppVersion.class));
+    }
+
+    /**
+     * Get the cached appVersion, or load it and cache it unless it has been evicted while it was loaded.
+     *
+     * @param id the id of the appVersion.
+     * @param loader loads the appVersion from the database.
+     * @return the appVersion, or empty if it does not exist.
+     */
+    public Optional<AppVersion> get(UUID id, Supplier<Optional<AppVersion>> loader) {
+        Optional<AppVersion> cached = get(id);
+        if (cached.isPresent()) {
+            return cached;
+        }
+        int stripe = stripe(id);
+        long generation;
+        synchronized (locks[stripe]) {
+            generation = generations[stripe];
+        }
+        Optional<AppVersion> loaded = loader.get();
+        loaded.ifPresent(appVersion -> {
+            synchronized (locks[stripe]) {
+                if (generations[stripe] == generation) {
+                    cache.put(id, appVersion);
+                }
+            }
+        });
+        return loaded;
+    }
+
+    /**
+     * Evict the appVersion, and keep the reads already loading it from caching it.
+     *
+     * @param id the id of the appVersion.
+     */
+    public void evict(UUID id) {
+        int stripe = stripe(id);
+        synchronized (locks[stripe]) {
+            generations[stripe]++;
+            cache.evict(id);
+        }
+    }
+
+    private static int stripe(UUID id) {
+        return Math.floorMod(id.hashCode(), STRIPES);
+    }
+}
@@ -0,0 +1,48 @@
+package com.ntap.corebe.service;
+
+import com.ntap.corebe.domain.AppVersion;
+import com.ntap.corebe.repository.AppVersionRepository;
+import com.ntap.corebe.service.event.AppVersionChangedEvent;
+import javax.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Evicts the local {@link com.ntap.corebe.domain.AppVersion} caches once a change has been committed.
+ * <p>
+ * Evicting after commit rather than inside the write transaction ensures a concurrent read cannot reload the
+ * pre-commit row between the eviction and the commit.
+ * <p>
+ * Hibernate maintains its second-level and query cache regions itself for local writes, but not for changes
+ * committed by other instances of the cluster or written by SQL statements bypassing the session: those regions are
+ * evicted here for such changes.
+ */
+@Service
+public class AppVersionCacheEvictor {
+
+    private final Logger log = LoggerFactory.getLogger(AppVersionCacheEvictor.class);
+
+    private final AppVersionByIdCache appVersionByIdCache;
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    public AppVersionCacheEvictor(AppVersionByIdCache appVersionByIdCache, EntityManagerFactory entityManagerFactory) {
+        this.appVersionByIdCache = appVersionByIdCache;
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAppVersionChanged(AppVersionChangedEvent event) {
+        log.debug("Evicting AppVersion caches for {}", event);
+        appVersionByIdCache.evict(event.getId());
+        if (event.isRemote() || event.isBypassingHibernate()) {
+            org.hibernate.Cache hibernateCache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+            hibernateCache.evictEntityData(AppVersion.class, event.getId());
+            hibernateCache.evictQueryRegion(AppVersionRepository.APP_VERSION_QUERY_CACHE);
+            hibernateCache.evictDefaultQueryRegion();
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.ntap.corebe.service;
+
+import com.ntap.corebe.domain.AppVersion;
+import com.ntap.corebe.repository.AppVersionRepositoryWithKeyset;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Opaque keyset pagination cursor of the {@link AppVersion}s, see {@link AppVersionRepositoryWithKeyset}.
+ * <p>
+ * A cursor encodes the (major, minor, patch, id) position of the last appVersion of a page, so that clients only need
+ * to send it back to get the next page.
+ */
+public final class AppVersionCursor {
+
+    private static final String SEPARATOR = ":";
+
+    private AppVersionCursor() {}
+
+    /**
+     * Encode the position of an appVersion.
+     *
+     * @param appVersion the last appVersion of a page.
+     * @return the cursor of the next page.
+     */
+    public static String encode(AppVersion appVersion) {
+        String position = String.join(
+            SEPARATOR,
+            String.valueOf(valueOf(appVersion.getMajor())),
+            String.valueOf(valueOf(appVersion.getMinor())),
+            String.valueOf(valueOf(appVersion.getPatch())),
+            appVersion.getId().toString()
+        );
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decode a cursor into a position.
+     *
+     * @param cursor the cursor.
+     * @return an appVersion holding only the major, minor, patch and id of the position.
+     * @throws IllegalArgumentException if the cursor is malformed.
+     */
+    public static AppVersion decode(String cursor) {
+        String[] position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(SEPARATOR, -1);
+        if (position.length != 4) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+        return new AppVersion()
+            .major(Integer.valueOf(position[0]))
+            .minor(Integer.valueOf(position[1]))
+            .patch(Integer.valueOf(position[2]))
+            .id(UUID.fromString(position[3]));
+    }
+
+    private static int valueOf(Integer version) {
+        return version == null ? AppVersionRepositoryWithKeyset.NULL_VERSION : version;
+    }
+}
@@ -0,0 +1,269 @@
+package com.ntap.corebe.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.ntap.corebe.domain.AppVersion;
+import com.ntap.corebe.domain.enumeration.AppVersionType;
+import com.ntap.corebe.domain.id.TimeOrderedUuidGenerator;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.TemporalAccessor;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Incremental reader of the {@link AppVersion}s of an import, one line at a time, so that the memory used does not
+ * depend on the size of the input.
+ * <p>
+ * Two layouts are supported:
+ * <ul>
+ *     <li>{@link #csv(Reader) CSV}, separated by semicolons, with a header line naming the columns, as in
+ *     {@code config/liquibase/fake-data/app_version.csv};</li>
+ *     <li>{@link #ndjson(Reader, ObjectReader) NDJSON}, one JSON appVersion per line.</li>
+ * </ul>
+ * Blank lines are skipped. AppVersions without an id are given a new one. An invalid line stops the import with an
+ * {@link IllegalArgumentException} giving its line number.
+ */
+public class AppVersionImportReader implements Iterator<AppVersion> {
+
+    private static final char CSV_SEPARATOR = ';';
+
+    private final BufferedReader lines;
+
+    private final Function<String, AppVersion> parser;
+
+    private final TimeOrderedUuidGenerator idGenerator = new TimeOrderedUuidGenerator();
+
+    private int lineNumber;
+
+    private AppVersion next;
+
+    private AppVersionImportReader(BufferedReader lines, int lineNumber, Function<String, AppVersion> parser) {
+        this.lines = lines;
+        this.lineNumber = lineNumber;
+        this.parser = parser;
+    }
+
+    /**
+     * Read appVersions from semicolon separated values, whose first line names the columns of the following ones.
+     *
+     * @param reader the input.
+     * @return the appVersions.
+     * @throws IllegalArgumentException if the header line is missing or names an unknown column.
+     */
+    public static AppVersionImportReader csv(Reader reader) {
+        BufferedReader lines = new BufferedReader(reader);
+        String header = readLine(lines);
+        if (header == null) {
+            throw new IllegalArgumentException("Line 1: missing header");
+        }
+        List<String> columns = splitCsv(header);
+        for (String column : columns) {
+            if (!isCsvColumn(column)) {
+                throw new IllegalArgumentException("Line 1: unknown column " + column);
+            }
+        }
+        return new AppVersionImportReader(
+            lines,
+            1,
+            line -> {
+                List<String> values = splitCsv(line);
+                if (values.size() != columns.size()) {
+                    throw new IllegalArgumentException("expected " + columns.size() + " values but got " + values.size());
+                }
+                AppVersion appVersion = new AppVersion();
+                for (int i = 0; i < columns.size(); i++) {
+                    String value = values.get(i);
+                    if (!value.isEmpty()) {
+                        setCsvColumn(appVersion, columns.get(i), value);
+                    }
+                }
+                return appVersion;
+            }
+        );
+    }
+
+    /**
+     * Read appVersions from newline-delimited JSON.
+     *
+     * @param reader the input.
+     * @param appVersionReader the reader of a single appVersion.
+     * @return the appVersions.
+     */
+    public static AppVersionImportReader ndjson(Reader reader, ObjectReader appVersionReader) {
+        return new AppVersionImportReader(
+            new BufferedReader(reader),
+            0,
+            line -> {
+                try {
+                    return appVersionReader.readValue(line);
+                } catch (JsonProcessingException e) {
+                    throw new IllegalArgumentException(e.getOriginalMessage(), e);
+                }
+            }
+        );
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (next == null) {
+            String line = readLine(lines);
+            if (line == null) {
+                return false;
+            }
+            lineNumber++;
+            if (!line.isBlank()) {
+                next = parse(line);
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public AppVersion next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        AppVersion appVersion = next;
+        next = null;
+        return appVersion;
+    }
+
+    private AppVersion parse(String line) {
+        AppVersion appVersion;
+        try {
+            appVersion = parser.apply(line);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Line " + lineNumber + ": " + e.getMessage(), e);
+        }
+        if (appVersion.getId() == null) {
+            appVersion.setId(idGenerator.next());
+        }
+        return appVersion;
+    }
+
+    private static String readLine(BufferedReader lines) {
+        try {
+            return lines.readLine();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Split a line of semicolon separated values, which may be double-quoted to contain semicolons, with {@code ""}
+     * for a double quote.
+     */
+    private static List<String> splitCsv(String line) {
+        List<String> values = new ArrayList<>();
+        StringBuilder value = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c != '"') {
+                    value.append(c);
+                } else if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    value.append(c);
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == CSV_SEPARATOR) {
+                values.add(value.toString());
+                value.setLength(0);
+            } else {
+                value.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("unterminated quoted value");
+        }
+        values.add(value.toString());
+        return values;
+    }
+
+    private static boolean isCsvColumn(String column) {
+        switch (column) {
+            case "id":
+            case "major":
+            case "minor":
+            case "patch":
+            case "release_date":
+            case "description":
+            case "location":
+            case "type":
+            case "created_by":
+            case "created_date":
+            case "last_modified_by":
+            case "last_modified_date":
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private static void setCsvColumn(AppVersion appVersion, String column, String value) {
+        switch (column) {
+            case "id":
+                appVersion.setId(UUID.fromString(value));
+                break;
+            case "major":
+                appVersion.setMajor(Integer.valueOf(value));
+                break;
+            case "minor":
+                appVersion.setMinor(Integer.valueOf(value));
+                break;
+            case "patch":
+                appVersion.setPatch(Integer.valueOf(value));
+                break;
+            case "release_date":
+                appVersion.setReleaseDate(parseInstant(value).atZone(ZoneOffset.UTC));
+                break;
+            case "description":
+                appVersion.setDescription(value);
+                break;
+            case "location":
+                appVersion.setLocation(value);
+                break;
+            case "type":
+                appVersion.setType(AppVersionType.valueOf(value));
+                break;
+            case "created_by":
+                appVersion.setCreatedBy(value);
+                break;
+            case "created_date":
+                appVersion.setCreatedDate(parseInstant(value));
+                break;
+            case "last_modified_by":
+                appVersion.setLastModifiedBy(value);
+                break;
+            case "last_modified_date":
+                appVersion.setLastModifiedDate(parseInstant(value));
+                break;
+            default:
+                throw new IllegalArgumentException("unknown column " + column);
+        }
+    }
+
+    /**
+     * Parse an ISO-8601 date-time, taken as UTC when it has no offset, like the Liquibase fake data.
+     */
+    private static Instant parseInstant(String value) {
+        TemporalAccessor parsed = DateTimeFormatter.ISO_DATE_TIME.parseBest(value, ZonedDateTime::from, LocalDateTime::from);
+        return parsed instanceof ZonedDateTime ? ((ZonedDateTime) parsed).toInstant() : ((LocalDateTime) parsed).toInstant(ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,195 @@
+package com.ntap.corebe.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ntap.corebe.config.ApplicationProperties;
+import com.ntap.corebe.config.KafkaProperties;
+import com.ntap.corebe.service.event.AppVersionChangedEvent;
+import com.ntap.corebe.service.event.AppVersionInvalidationMessage;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.PreDestroy;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.errors.WakeupException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Propagates committed {@link com.ntap.corebe.domain.AppVersion} changes between the instances of the cluster, so that
+ * none of them keeps serving stale local state after a write on a peer.
+ * <p>
+ * Every local change is published after commit, from the {@code taskExecutor}, as a compact
+ * {@link AppVersionInvalidationMessage} keyed by the appVersion id. Every instance consumes all the partitions of the
+ * topic from their end, without any consumer group, ignores its own messages and re-publishes the others as remote
+ * {@link AppVersionChangedEvent}s, which the local caches and indexes already listen to. The delay between commit and local invalidation is recorded in the
+ * {@code app.version.invalidation.lag} timer.
+ */
+@Service
+@ConditionalOnProperty(prefix = "application.cache.invalidation", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class AppVersionInvalidationChannel {
+
+    private static final Duration POLL_TIMEOUT = Duration.ofSeconds(1);
+
+    private final Logger log = LoggerFactory.getLogger(AppVersionInvalidationChannel.class);
+
+    private final String instanceId = UUID.randomUUID().toString();
+
+    private final String topic;
+
+    private final KafkaProperties kafkaProperties;
+
+    private final ObjectMapper objectMapper;
+
+    private final ApplicationEventPublisher applicationEventPublisher;
+
+    private final Timer invalidationLag;
+
+    private final KafkaProducer<String, String> producer;
+
+    private final ExecutorService consumerExecutorService = Executors.newSingleThreadExecutor();
+
+    private KafkaConsumer<String, String> consumer;
+
+    private volatile boolean running;
+
+    public AppVersionInvalidationChannel(
+        ApplicationProperties applicationProperties,
+        KafkaProperties kafkaProperties,
+        ObjectMapper objectMapper,
+        ApplicationEventPublisher applicationEventPublisher,
+        MeterRegistry meterRegistry
+    ) {
+        this.topic = applicationProperties.getCache().getInvalidation().getTopic();
+        this.kafkaProperties = kafkaProperties;
+        this.objectMapper = objectMapper;
+        this.applicationEventPublisher = applicationEventPublisher;
+        this.invalidationLag =
+            Timer
+                .builder("app.version.invalidation.lag")
+                .description("Delay between a change committed on a peer instance and its local invalidation")
+                .register(meterRegistry);
+        this.producer = new KafkaProducer<>(kafkaProperties.getProducerProps());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        Map<String, Object> consumerProps = kafkaProperties.getConsumerProps();
+        // every instance must see every message, and only the ones published after it started: the partitions are
+        // assigned rather than subscribed to, so that no consumer group is left behind by every instance ever started
+        consumerProps.remove(ConsumerConfig.GROUP_ID_CONFIG);
+        consumerProps.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, "false");
+        consumer = new KafkaConsumer<>(consumerProps);
+        running = true;
+        consumerExecutorService.execute(this::consume);
+        log.debug("Listening to AppVersion invalidations on Kafka topic {} as instance {}", topic, instanceId);
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (consumer != null) {
+            consumer.wakeup();
+        }
+        consumerExecutorService.shutdown();
+        producer.close(Duration.ofSeconds(5));
+    }
+
+    @Async
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAppVersionChanged(AppVersionChangedEvent event) {
+        if (event.isRemote()) {
+            return;
+        }
+        AppVersionInvalidationMessage message = new AppVersionInvalidationMessage(event, instanceId, System.currentTimeMillis());
+        try {
+            producer.send(
+                new ProducerRecord<>(topic, event.getId().toString(), objectMapper.writeValueAsString(message)),
+                (metadata, exception) -> {
+                    if (exception != null) {
+                        log.warn("Could not publish {} to Kafka topic {}: {}", message, topic, exception.getMessage());
+                    }
+                }
+            );
+        } catch (JsonProcessingException | RuntimeException e) {
+            log.warn("Could not publish {} to Kafka topic {}: {}", message, topic, e.getMessage());
+        }
+    }
+
+    private void consume() {
+        try {
+            assignToEnd();
+            while (running) {
+                for (ConsumerRecord<String, String> record : consumer.poll(POLL_TIMEOUT)) {
+                    handle(record.value());
+                }
+            }
+        } catch (WakeupException e) {
+            // stopping
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.error("AppVersion invalidation consumer stopped: {}", e.getMessage(), e);
+        } finally {
+            consumer.close();
+        }
+    }
+
+    /**
+     * Assign all the partitions of the topic, from their end, once it exists.
+     */
+    private void assignToEnd() throws InterruptedException {
+        List<TopicPartition> partitions = new ArrayList<>();
+        while (running && partitions.isEmpty()) {
+            List<PartitionInfo> partitionInfos = consumer.partitionsFor(topic);
+            if (partitionInfos == null || partitionInfos.isEmpty()) {
+                log.debug("Waiting for Kafka topic {} to exist", topic);
+                Thread.sleep(POLL_TIMEOUT.toMillis());
+            } else {
+                partitionInfos.forEach(info -> partitions.add(new TopicPartition(info.topic(), info.partition())));
+            }
+        }
+        consumer.assign(partitions);
+        consumer.seekToEnd(partitions);
+    }
+
+    private void handle(String value) {
+        AppVersionInvalidationMessage message;
+        try {
+            message = objectMapper.readValue(value, AppVersionInvalidationMessage.class);
+        } catch (JsonProcessingException e) {
+            log.warn("Ignoring malformed AppVersion invalidation message: {}", e.getMessage());
+            return;
+        }
+        if (instanceId.equals(message.getOrigin())) {
+            return;
+        }
+        log.debug("Applying remote AppVersion invalidation {}", message);
+        try {
+            applicationEventPublisher.publishEvent(message.toEvent());
+        } catch (RuntimeException e) {
+            log.warn("Could not apply remote AppVersion invalidation {}: {}", message, e.getMessage(), e);
+        }
+        invalidationLag.record(Math.max(0, System.currentTimeMillis() - message.getTimestamp()), TimeUnit.MILLISECONDS);
+    }
+}
@@ -0,0 +1,118 @@
+package com.ntap.corebe.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ntap.corebe.domain.AppVersion;
+import com.ntap.corebe.domain.AppVersionOutboxEvent;
+import com.ntap.corebe.repository.AppVersionOutboxEventRepository;
+import com.ntap.corebe.service.event.AppVersionChangeMessage;
+import com.ntap.corebe.service.event.AppVersionChangedEvent;
+import com.ntap.corebe.service.event.AppVersionsImportedEvent;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Writes every local {@link com.ntap.corebe.domain.AppVersion} change to the {@link AppVersionOutboxEvent} table, in
+ * the transaction of the change, for the {@link AppVersionOutboxRelay} to publish it to Kafka after commit.
+ * <p>
+ * The events of a transaction are collected as they are published, then inserted with a single batch right before
+ * the commit, once the pending changes have been flushed: the rows of the changed appVersions are then locked, so
+ * the outbox ids of the changes of an appVersion follow their commit order.
+ * <p>
+ * The appVersions of an import are instead inserted a batch at a time as they are imported, so that an import of any
+ * size never holds its events in memory. Being new, they cannot have concurrent changes to order them with.
+ */
+@Service
+@ConditionalOnProperty(prefix = "application.outbox", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class AppVersionOutbox {
+
+    private final Logger log = LoggerFactory.getLogger(AppVersionOutbox.class);
+
+    private final AppVersionOutboxEventRepository appVersionOutboxEventRepository;
+
+    private final ObjectMapper objectMapper;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public AppVersionOutbox(AppVersionOutboxEventRepository appVersionOutboxEventRepository, ObjectMapper objectMapper) {
+        this.appVersionOutboxEventRepository = appVersionOutboxEventRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    @EventListener
+    public void onAppVersionChanged(AppVersionChangedEvent event) throws JsonProcessingException {
+        if (event.isRemote()) {
+            // already written to the outbox of the instance which committed it
+            return;
+        }
+        if (event.isImported()) {
+            // the imported appVersions are written one by one, see onAppVersionsImported
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            log.warn("Not writing {} to the outbox: no transaction is active", event);
+            return;
+        }
+        pendingEvents().add(outboxEvent(event, System.currentTimeMillis()));
+    }
+
+    @EventListener
+    public void onAppVersionsImported(AppVersionsImportedEvent event) throws JsonProcessingException {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            log.warn("Not writing {} to the outbox: no transaction is active", event);
+            return;
+        }
+        long now = System.currentTimeMillis();
+        List<AppVersionOutboxEvent> events = new ArrayList<>(event.getAppVersions().size());
+        for (AppVersion appVersion : event.getAppVersions()) {
+            events.add(outboxEvent(AppVersionChangedEvent.savedBypassingHibernate(appVersion), now));
+        }
+        appVersionOutboxEventRepository.insertAll(events);
+    }
+
+    private AppVersionOutboxEvent outboxEvent(AppVersionChangedEvent event, long now) throws JsonProcessingException {
+        return new AppVersionOutboxEvent()
+            .aggregateId(event.getId())
+            .payload(objectMapper.writeValueAsString(new AppVersionChangeMessage(event, now)))
+            .createdDate(Instant.ofEpochMilli(now));
+    }
+
+    /**
+     * The events of the current transaction, inserted when it commits.
+     */
+    private List<AppVersionOutboxEvent> pendingEvents() {
+        @SuppressWarnings("unchecked")
+        List<AppVersionOutboxEvent> pending = (List<AppVersionOutboxEvent>) TransactionSynchronizationManager.getResource(this);
+        if (pending != null) {
+            return pending;
+        }
+        List<AppVersionOutboxEvent> events = new ArrayList<>();
+        TransactionSynchronizationManager.bindResource(this, events);
+        TransactionSynchronizationManager.registerSynchronization(
+            new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    entityManager.flush();
+                    appVersionOutboxEventRepository.insertAll(events);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResource(AppVersionOutbox.this);
+                }
+            }
+        );
+        return events;
+    }
+}
@@ -0,0 +1,203 @@
+package com.ntap.corebe.service;
+
+import com.ntap.corebe.config.ApplicationProperties;
+import com.ntap.corebe.config.KafkaProperties;
+import com.ntap.corebe.domain.AppVersionOutboxEvent;
+import com.ntap.corebe.repository.AppVersionOutboxEventRepository;
+import com.ntap.corebe.service.event.AppVersionChangedEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import javax.annotation.PreDestroy;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.Producer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Relays the {@link AppVersionOutboxEvent}s written by {@link AppVersionOutbox} to Kafka, from the
+ * {@code taskExecutor}, so that no write transaction ever waits for the broker.
+ * <p>
+ * A drain is requested after every local commit, and every {@code application.outbox.poll-interval-ms} for the events
+ * left by failed drains or by other instances. Each batch is read in id order and locked, sent keyed by the appVersion
+ * id, and only deleted once Kafka has acknowledged all of its records: a failure leaves the batch to be sent again, so
+ * delivery is at-least-once. Records of an appVersion keep their order, since they share a partition, the producer is
+ * idempotent, and a single relay at a time can hold the oldest events. The delay between a change and its
+ * acknowledgement is recorded in the {@code app.version.outbox.lag} timer.
+ */
+@Service
+@ConditionalOnProperty(prefix = "application.outbox", name = "relay-enabled", havingValue = "true", matchIfMissing = true)
+public class AppVersionOutboxRelay {
+
+    private final Logger log = LoggerFactory.getLogger(AppVersionOutboxRelay.class);
+
+    private final AppVersionOutboxEventRepository appVersionOutboxEventRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final Executor taskExecutor;
+
+    private final Producer<String, String> producer;
+
+    private final String topic;
+
+    private final int batchSize;
+
+    private final long sendTimeoutMs;
+
+    private final Timer outboxLag;
+
+    private final AtomicBoolean drainRequested = new AtomicBoolean();
+
+    private final AtomicBoolean draining = new AtomicBoolean();
+
+    @Autowired
+    public AppVersionOutboxRelay(
+        ApplicationProperties applicationProperties,
+        KafkaProperties kafkaProperties,
+        AppVersionOutboxEventRepository appVersionOutboxEventRepository,
+        PlatformTransactionManager transactionManager,
+        @Qualifier("taskExecutor") Executor taskExecutor,
+        MeterRegistry meterRegistry
+    ) {
+        this(
+            applicationProperties,
+            appVersionOutboxEventRepository,
+            transactionManager,
+            taskExecutor,
+            meterRegistry,
+            new KafkaProducer<>(producerProps(kafkaProperties))
+        );
+    }
+
+    AppVersionOutboxRelay(
+        ApplicationProperties applicationProperties,
+        AppVersionOutboxEventRepository appVersionOutboxEventRepository,
+        PlatformTransactionManager transactionManager,
+        Executor taskExecutor,
+        MeterRegistry meterRegistry,
+        Producer<String, String> producer
+    ) {
+        this.appVersionOutboxEventRepository = appVersionOutboxEventRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.taskExecutor = taskExecutor;
+        this.producer = producer;
+        this.topic = applicationProperties.getOutbox().getTopic();
+        this.batchSize = applicationProperties.getOutbox().getBatchSize();
+        this.sendTimeoutMs = applicationProperties.getOutbox().getSendTimeoutMs();
+        this.outboxLag =
+            Timer
+                .builder("app.version.outbox.lag")
+                .description("Delay between an AppVersion change and its acknowledgement by Kafka")
+                .register(meterRegistry);
+    }
+
+    private static Map<String, Object> producerProps(KafkaProperties kafkaProperties) {
+        Map<String, Object> producerProps = kafkaProperties.getProducerProps();
+        // no record is lost nor reordered by the retries of the producer
+        producerProps.putIfAbsent(ProducerConfig.ACKS_CONFIG, "all");
+        producerProps.putIfAbsent(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, "true");
+        return producerProps;
+    }
+
+    @PreDestroy
+    public void stop() {
+        producer.close(Duration.ofSeconds(5));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAppVersionChanged(AppVersionChangedEvent event) {
+        if (!event.isRemote()) {
+            requestDrain();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${application.outbox.poll-interval-ms:1000}")
+    public void poll() {
+        requestDrain();
+    }
+
+    /**
+     * Drain the outbox from the {@code taskExecutor}, unless a drain is already running, in which case it drains again
+     * once done.
+     */
+    public void requestDrain() {
+        drainRequested.set(true);
+        if (draining.compareAndSet(false, true)) {
+            taskExecutor.execute(this::drain);
+        }
+    }
+
+    private void drain() {
+        try {
+            while (drainRequested.getAndSet(false)) {
+                int relayed;
+                do {
+                    relayed = transactionTemplate.execute(status -> relayBatch());
+                } while (relayed == batchSize);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Could not relay the AppVersion outbox to Kafka topic {}, retrying on next poll: {}", topic, e.getMessage());
+        } finally {
+            draining.set(false);
+        }
+        if (drainRequested.get() && draining.compareAndSet(false, true)) {
+            taskExecutor.execute(this::drain);
+        }
+    }
+
+    private int relayBatch() {
+        List<AppVersionOutboxEvent> batch = appVersionOutboxEventRepository.findAllByOrderByIdAsc(PageRequest.of(0, batchSize));
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        List<Future<RecordMetadata>> sends = new ArrayList<>(batch.size());
+        for (AppVersionOutboxEvent event : batch) {
+            sends.add(producer.send(new ProducerRecord<>(topic, event.getAggregateId().toString(), event.getPayload())));
+        }
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(sendTimeoutMs);
+        for (Future<RecordMetadata> send : sends) {
+            awaitAcknowledgement(send, deadline);
+        }
+        long now = System.currentTimeMillis();
+        batch.forEach(event -> outboxLag.record(Math.max(0, now - event.getCreatedDate().toEpochMilli()), TimeUnit.MILLISECONDS));
+        appVersionOutboxEventRepository.deleteAllByIdInBatch(batch.stream().map(AppVersionOutboxEvent::getId).collect(Collectors.toList()));
+        log.debug("Relayed {} AppVersion changes to Kafka topic {}", batch.size(), topic);
+        return batch.size();
+    }
+
+    private static void awaitAcknowledgement(Future<RecordMetadata> send, long deadline) {
+        try {
+            send.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while relaying the AppVersion outbox", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause().getMessage(), e.getCause());
+        } catch (TimeoutException e) {
+            throw new IllegalStateException("Timed out waiting for Kafka to acknowledge the AppVersion outbox", e);
+        }
+    }
+}
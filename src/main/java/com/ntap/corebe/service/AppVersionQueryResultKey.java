@@ -0,0 +1,135 @@
+package com.ntap.corebe.service;
+
+import com.ntap.corebe.service.criteria.AppVersionCriteria;
+import java.io.Serializable;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import org.springframework.data.domain.Pageable;
+import tech.jhipster.service.filter.Filter;
+import tech.jhipster.service.filter.RangeFilter;
+import tech.jhipster.service.filter.StringFilter;
+
+/**
+ * Key of the {@link AppVersionQueryService} result cache.
+ * <p>
+ * The criteria are canonicalized, so that requests selecting the same rows share an entry: filters without any
+ * condition are dropped, {@code in}/{@code notIn} values are de-duplicated and sorted, and {@code distinct=false} is
+ * treated as absent. The catalog version makes every entry unreachable once the catalog changes.
+ */
+final class AppVersionQueryResultKey implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String query;
+
+    private final long catalogVersion;
+
+    private final AppVersionCriteria criteria;
+
+    private final Pageable page;
+
+    private AppVersionQueryResultKey(String query, long catalogVersion, AppVersionCriteria criteria, Pageable page) {
+        this.query = query;
+        this.catalogVersion = catalogVersion;
+        this.criteria = criteria;
+        this.page = page;
+    }
+
+    static AppVersionQueryResultKey of(String query, long catalogVersion, AppVersionCriteria criteria, Pageable page) {
+        return new AppVersionQueryResultKey(query, catalogVersion, normalize(criteria), page);
+    }
+
+    static AppVersionCriteria normalize(AppVersionCriteria criteria) {
+        AppVersionCriteria normalized = criteria == null ? new AppVersionCriteria() : criteria.copy();
+        normalized.setId(normalize(normalized.getId()));
+        normalized.setMajor(normalize(normalized.getMajor()));
+        normalized.setMinor(normalize(normalized.getMinor()));
+        normalized.setPatch(normalize(normalized.getPatch()));
+        normalized.setReleaseDate(normalize(normalized.getReleaseDate()));
+        normalized.setDescription(normalize(normalized.getDescription()));
+        normalized.setLocation(normalize(normalized.getLocation()));
+        normalized.setType(normalize(normalized.getType()));
+        normalized.setCreatedBy(normalize(normalized.getCreatedBy()));
+        normalized.setCreatedDate(normalize(normalized.getCreatedDate()));
+        normalized.setLastModifiedBy(normalize(normalized.getLastModifiedBy()));
+        normalized.setLastModifiedDate(normalize(normalized.getLastModifiedDate()));
+        if (Boolean.FALSE.equals(normalized.getDistinct())) {
+            normalized.setDistinct(null);
+        }
+        return normalized;
+    }
+
+    private static <T, F extends Filter<T>> F normalize(F filter) {
+        if (filter == null) {
+            return null;
+        }
+        if (filter.getIn() != null) {
+            filter.setIn(sortedDistinct(filter.getIn()));
+        }
+        if (filter.getNotIn() != null) {
+            filter.setNotIn(sortedDistinct(filter.getNotIn()));
+        }
+        return isEmpty(filter) ? null : filter;
+    }
+
+    private static <T> List<T> sortedDistinct(List<T> values) {
+        // all the AppVersion filter types (UUID, Integer, String, enum and temporal types) are Comparable
+        return values.stream().distinct().sorted().collect(Collectors.toList());
+    }
+
+    private static boolean isEmpty(Filter<?> filter) {
+        boolean empty =
+            filter.getEquals() == null &&
+            filter.getNotEquals() == null &&
+            filter.getSpecified() == null &&
+            filter.getIn() == null &&
+            filter.getNotIn() == null;
+        if (filter instanceof RangeFilter) {
+            RangeFilter<?> rangeFilter = (RangeFilter<?>) filter;
+            empty &=
+                rangeFilter.getGreaterThan() == null &&
+                rangeFilter.getGreaterThanOrEqual() == null &&
+                rangeFilter.getLessThan() == null &&
+                rangeFilter.getLessThanOrEqual() == null;
+        }
+        if (filter instanceof StringFilter) {
+            StringFilter stringFilter = (StringFilter) filter;
+            empty &= stringFilter.getContains() == null && stringFilter.getDoesNotContain() == null;
+        }
+        return empty;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        final AppVersionQueryResultKey that = (AppVersionQueryResultKey) o;
+        return (
+            catalogVersion == that.catalogVersion &&
+            Objects.equals(query, that.query) &&
+            Objects.equals(criteria, that.criteria) &&
+            Objects.equals(page, that.page)
+        );
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(query, catalogVersion, criteria, page);
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "AppVersionQueryResultKey{" +
+            "query='" + query + "'" +
+            ", catalogVersion=" + catalogVersion +
+            ", criteria=" + criteria +
+            ", page=" + page +
+            "}";
+    }
+}
@@ -1,36 +1,76 @@
 package com.ntap.corebe.service;
 
+import com.ntap.corebe.config.ApplicationProperties;
 import com.ntap.corebe.domain.*; // for static metamodels
 import com.ntap.corebe.domain.AppVersion;
 import com.ntap.corebe.repository.AppVersionRepository;
 import com.ntap.corebe.service.criteria.AppVersionCriteria;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import javax.persistence.Tuple;
 import javax.persistence.criteria.JoinType;
+import javax.persistence.metamodel.Attribute;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import tech.jhipster.service.QueryService;
 
 /**
  * Service for executing complex queries for {@link AppVersion} entities in the database.
  * The main input is a {@link AppVersionCriteria} which gets converted to {@link Specification},
  * in a way that all the filters must apply.
- * It returns a {@link List} of {@link AppVersion} or a {@link Page} of {@link AppVersion} which fulfills the criteria.
+ * It returns a {@link List} of {@link AppVersion}, a {@link Page} or a {@link Slice} of {@link AppVersion} which fulfills the criteria.
+ * <p>
+ * Results are cached in the {@link #APP_VERSION_QUERY_RESULTS_CACHE} cache, keyed by the canonicalized criteria and
+ * the {@link CatalogVersion}, so that any committed change to the catalog invalidates them all at once. The queries
+ * run in their own repository transaction, so that a cache hit does not borrow a database connection.
  */
 @Service
 @Transactional(readOnly = true)
 public class AppVersionQueryService extends QueryService<AppVersion> {
 
+    public static final String APP_VERSION_QUERY_RESULTS_CACHE = "appVersionQueryResults";
+
     private final Logger log = LoggerFactory.getLogger(AppVersionQueryService.class);
 
     private final AppVersionRepository appVersionRepository;
 
-    public AppVersionQueryService(AppVersionRepository appVersionRepository) {
+    private final CatalogVersion catalogVersion;
+
+    private final Cache queryResultsCache;
+
+    private final int maxCachedResultSize;
+
+    public AppVersionQueryService(
+        AppVersionRepository appVersionRepository,
+        CatalogVersion catalogVersion,
+        CacheManager cacheManager,
+        ApplicationProperties applicationProperties
+    ) {
         this.appVersionRepository = appVersionRepository;
+        this.catalogVersion = catalogVersion;
+        this.queryResultsCache = cacheManager.getCache(APP_VERSION_QUERY_RESULTS_CACHE);
+        this.maxCachedResultSize = applicationProperties.getCache().getAppVersionQueryResults().getMaxResultSize();
     }
 
     /**
@@ -38,11 +78,11 @@ public class AppVersionQueryService extends QueryService<AppVersion> {
      * @param criteria The object which holds all the filters, which the entities should match.
      * @return the matching entities.
      */
-    @Transactional(readOnly = true)
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
     public List<AppVersion> findByCriteria(AppVersionCriteria criteria) {
         log.debug("find by criteria : {}", criteria);
         final Specification<AppVersion> specification = createSpecification(criteria);
-        return appVersionRepository.findAll(specification);
+        return cached("findAll", criteria, null, () -> appVersionRepository.findAll(specification), List::size);
     }
 
     /**
@@ -51,11 +91,111 @@ public class AppVersionQueryService extends QueryService<AppVersion> {
      * @param page The page, which should be returned.
      * @return the matching entities.
      */
-    @Transactional(readOnly = true)
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
     public Page<AppVersion> findByCriteria(AppVersionCriteria criteria, Pageable page) {
         log.debug("find by criteria : {}, page: {}", criteria, page);
         final Specification<AppVersion> specification = createSpecification(criteria);
-        return appVersionRepository.findAll(specification, page);
+        return cached("findPage", criteria, page, () -> appVersionRepository.findAll(specification, page), Page::getNumberOfElements);
+    }
+
+    /**
+     * Return a {@link Slice} of {@link AppVersion} which matches the criteria from the database, using keyset
+     * pagination in (major, minor, patch, id) order.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @param after The position the slice starts after, see {@link AppVersionCursor}, or {@code null} for the first slice.
+     * @param size The maximum number of entities of the slice.
+     * @return the matching entities.
+     */
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+    public Slice<AppVersion> findByCriteriaAfter(AppVersionCriteria criteria, AppVersion after, int size) {
+        log.debug("find by criteria : {}, after: {}, size: {}", criteria, after, size);
+        final Specification<AppVersion> specification = createSpecification(criteria);
+        String query = after == null ? "findFirst" : "findAfter " + AppVersionCursor.encode(after);
+        return cached(
+            query,
+            criteria,
+            PageRequest.of(0, size),
+            () -> {
+                // one more appVersion than requested tells whether there is a next slice
+                List<AppVersion> appVersions = appVersionRepository.findAllAfter(specification, after, size + 1);
+                boolean hasNext = appVersions.size() > size;
+                return new SliceImpl<>(hasNext ? appVersions.subList(0, size) : appVersions, PageRequest.of(0, size), hasNext);
+            },
+            Slice::getNumberOfElements
+        );
+    }
+
+    /**
+     * Return the given fields of the {@link AppVersion}s which match the criteria from the database, without
+     * hydrating any entity.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @param fields The names of the fields to return.
+     * @return the requested fields of each matching entity, by name, in the requested order.
+     * @throws IllegalArgumentException if a field is not a basic attribute of {@link AppVersion}.
+     */
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
+    public List<Map<String, Object>> findFieldsByCriteria(AppVersionCriteria criteria, Set<String> fields) {
+        log.debug("find fields {} by criteria : {}", fields, criteria);
+        final Specification<AppVersion> specification = createSpecification(criteria);
+        final List<String> selectedFields = List.copyOf(fields);
+        Set<String> unknownFields = new HashSet<>(selectedFields);
+        unknownFields.removeAll(projectableFields());
+        if (!unknownFields.isEmpty()) {
+            throw new IllegalArgumentException("Unknown AppVersion fields: " + unknownFields);
+        }
+        return cached(
+            "findFields " + selectedFields,
+            criteria,
+            null,
+            () -> {
+                List<Map<String, Object>> rows = new ArrayList<>();
+                for (Tuple tuple : appVersionRepository.findAll(specification, selectedFields)) {
+                    Map<String, Object> row = new LinkedHashMap<>();
+                    for (String field : selectedFields) {
+                        row.put(field, tuple.get(field));
+                    }
+                    rows.add(row);
+                }
+                return rows;
+            },
+            List::size
+        );
+    }
+
+    private static Set<String> projectableFields() {
+        return Stream
+            .of(
+                AppVersion_.id,
+                AppVersion_.major,
+                AppVersion_.minor,
+                AppVersion_.patch,
+                AppVersion_.releaseDate,
+                AppVersion_.description,
+                AppVersion_.location,
+                AppVersion_.type,
+                AppVersion_.createdBy,
+                AppVersion_.createdDate,
+                AppVersion_.lastModifiedBy,
+                AppVersion_.lastModifiedDate,
+                AppVersion_.version
+            )
+            .map(Attribute::getName)
+            .collect(Collectors.toSet());
+    }
+
+    /**
+     * Pass every {@link AppVersion} which matches the criteria to an action, streaming them from the database.
+     * <p>
+     * The entities are detached as they are read and never cached, so that memory use does not depend on their number.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @param action The action, called with each matching entity in turn.
+     */
+    public void streamByCriteria(AppVersionCriteria criteria, Consumer<AppVersion> action) {
+        log.debug("stream by criteria : {}", criteria);
+        final Specification<AppVersion> specification = createSpecification(criteria);
+        try (Stream<AppVersion> appVersions = appVersionRepository.streamAll(specification)) {
+            appVersions.forEach(action);
+        }
     }
 
     /**
@@ -63,11 +203,34 @@ public class AppVersionQueryService extends QueryService<AppVersion> {
      * @param criteria The object which holds all the filters, which the entities should match.
      * @return the number of matching entities.
      */
-    @Transactional(readOnly = true)
+    @Transactional(readOnly = true, propagation = Propagation.SUPPORTS)
     public long countByCriteria(AppVersionCriteria criteria) {
         log.debug("count by criteria : {}", criteria);
         final Specification<AppVersion> specification = createSpecification(criteria);
-        return appVersionRepository.count(specification);
+        return cached("count", criteria, null, () -> appVersionRepository.count(specification), count -> 1);
+    }
+
+    /**
+     * Serve a query result from the result cache, or run the query and cache its result if it is small enough.
+     * <p>
+     * The cache is bypassed inside a caller's transaction, which may hold uncommitted changes that must neither be
+     * hidden by a cached result nor leak into the cache.
+     */
+    @SuppressWarnings("unchecked")
+    private <T> T cached(String query, AppVersionCriteria criteria, Pageable page, Supplier<T> loader, ToIntFunction<T> resultSize) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return loader.get();
+        }
+        AppVersionQueryResultKey key = AppVersionQueryResultKey.of(query, catalogVersion.get(), criteria, page);
+        Cache.ValueWrapper cachedResult = queryResultsCache.get(key);
+        if (cachedResult != null) {
+            return (T) cachedResult.get();
+        }
+        T result = loader.get();
+        if (resultSize.applyAsInt(result) <= maxCachedResultSize) {
+            queryResultsCache.put(key, result);
+        }
+        return result;
     }
 
     /**
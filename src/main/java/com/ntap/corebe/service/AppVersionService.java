@@ -1,14 +1,37 @@
 package com.ntap.corebe.service;
 
+import com.ntap.corebe.config.ApplicationProperties;
 import com.ntap.corebe.domain.AppVersion;
+import com.ntap.corebe.domain.enumeration.AppVersionType;
+import com.ntap.corebe.domain.id.TimeOrderedUuidGenerator;
 import com.ntap.corebe.repository.AppVersionRepository;
+import com.ntap.corebe.repository.AppVersionRepositoryWithUpdate;
+import com.ntap.corebe.service.criteria.AppVersionCriteria;
+import com.ntap.corebe.service.dto.AppVersionBulkResult;
+import com.ntap.corebe.service.dto.AppVersionImportResult;
+import com.ntap.corebe.service.event.AppVersionChangedEvent;
+import com.ntap.corebe.service.event.AppVersionsImportedEvent;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.TreeMap;
 import java.util.UUID;
+import java.util.stream.StreamSupport;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 /**
  * Service Implementation for managing {@link AppVersion}.
@@ -17,12 +40,44 @@ import org.springframework.transaction.annotation.Transactional;
 @Transactional
 public class AppVersionService {
 
+    public static final String APP_VERSION_BY_ID_CACHE = "appVersionById";
+
     private final Logger log = LoggerFactory.getLogger(AppVersionService.class);
 
     private final AppVersionRepository appVersionRepository;
 
-    public AppVersionService(AppVersionRepository appVersionRepository) {
+    private final AppVersionQueryService appVersionQueryService;
+
+    private final ApplicationEventPublisher applicationEventPublisher;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final AppVersionByIdCache appVersionByIdCache;
+
+    private final TimeOrderedUuidGenerator idGenerator = new TimeOrderedUuidGenerator();
+
+    private final int bulkChunkSize;
+
+    private final int importBatchSize;
+
+    private final long importProgressRows;
+
+    public AppVersionService(
+        AppVersionRepository appVersionRepository,
+        AppVersionQueryService appVersionQueryService,
+        ApplicationEventPublisher applicationEventPublisher,
+        PlatformTransactionManager transactionManager,
+        AppVersionByIdCache appVersionByIdCache,
+        ApplicationProperties applicationProperties
+    ) {
         this.appVersionRepository = appVersionRepository;
+        this.appVersionQueryService = appVersionQueryService;
+        this.applicationEventPublisher = applicationEventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.appVersionByIdCache = appVersionByIdCache;
+        this.bulkChunkSize = applicationProperties.getBulk().getChunkSize();
+        this.importBatchSize = applicationProperties.getBulk().getImportBatchSize();
+        this.importProgressRows = applicationProperties.getBulk().getImportProgressRows();
     }
 
     /**
@@ -33,58 +88,187 @@ public class AppVersionService {
      */
     public AppVersion save(AppVersion appVersion) {
         log.debug("Request to save AppVersion : {}", appVersion);
-        return appVersionRepository.save(appVersion);
+        AppVersion result = appVersionRepository.save(appVersion);
+        applicationEventPublisher.publishEvent(AppVersionChangedEvent.saved(result));
+        return result;
     }
 
     /**
-     * Partially update a appVersion.
+     * Save new appVersions in bulk.
+     * <p>
+     * The appVersions are saved in chunks, one transaction per chunk, so that Hibernate sends their inserts in JDBC
+     * batches of {@code hibernate.jdbc.batch_size}. If a chunk fails, its appVersions are saved one by one, to tell
+     * the failing ones apart.
      *
-     * @param appVersion the entity to update partially.
-     * @return the persisted entity.
+     * @param appVersions the entities to save, {@code null} for items which could not be read.
+     * @return the outcome of each entity, in order.
      */
-    public Optional<AppVersion> partialUpdate(AppVersion appVersion) {
-        log.debug("Request to partially update AppVersion : {}", appVersion);
-
-        return appVersionRepository
-            .findById(appVersion.getId())
-            .map(existingAppVersion -> {
-                if (appVersion.getMajor() != null) {
-                    existingAppVersion.setMajor(appVersion.getMajor());
-                }
-                if (appVersion.getMinor() != null) {
-                    existingAppVersion.setMinor(appVersion.getMinor());
-                }
-                if (appVersion.getPatch() != null) {
-                    existingAppVersion.setPatch(appVersion.getPatch());
-                }
-                if (appVersion.getReleaseDate() != null) {
-                    existingAppVersion.setReleaseDate(appVersion.getReleaseDate());
-                }
-                if (appVersion.getDescription() != null) {
-                    existingAppVersion.setDescription(appVersion.getDescription());
-                }
-                if (appVersion.getLocation() != null) {
-                    existingAppVersion.setLocation(appVersion.getLocation());
-                }
-                if (appVersion.getType() != null) {
-                    existingAppVersion.setType(appVersion.getType());
-                }
-                if (appVersion.getCreatedBy() != null) {
-                    existingAppVersion.setCreatedBy(appVersion.getCreatedBy());
-                }
-                if (appVersion.getCreatedDate() != null) {
-                    existingAppVersion.setCreatedDate(appVersion.getCreatedDate());
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<AppVersionBulkResult> saveAll(List<AppVersion> appVersions) {
+        log.debug("Request to save {} AppVersions", appVersions.size());
+        List<AppVersionBulkResult> results = new ArrayList<>(appVersions.size());
+        for (int from = 0; from < appVersions.size(); from += bulkChunkSize) {
+            results.addAll(saveChunk(appVersions, from, Math.min(from + bulkChunkSize, appVersions.size())));
+        }
+        return results;
+    }
+
+    private List<AppVersionBulkResult> saveChunk(List<AppVersion> appVersions, int from, int to) {
+        Map<Integer, AppVersionBulkResult> results = new TreeMap<>();
+        List<Integer> valid = new ArrayList<>(to - from);
+        for (int index = from; index < to; index++) {
+            AppVersion appVersion = appVersions.get(index);
+            if (appVersion == null) {
+                results.put(index, AppVersionBulkResult.failed(index, "invalid"));
+            } else if (appVersion.getId() != null) {
+                results.put(index, AppVersionBulkResult.failed(index, "idexists"));
+            } else {
+                valid.add(index);
+            }
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                valid.forEach(index -> save(appVersions.get(index)));
+                appVersionRepository.flush();
+            });
+            valid.forEach(index -> results.put(index, AppVersionBulkResult.created(index, appVersions.get(index).getId())));
+        } catch (DataAccessException e) {
+            log.warn("Bulk save of AppVersions {} to {} failed, saving them one by one: {}", from, to - 1, e.getMessage());
+            for (int index : valid) {
+                AppVersion appVersion = appVersions.get(index);
+                // the id and version set by the rolled back chunk were never committed
+                appVersion.setId(null);
+                appVersion.setVersion(null);
+                try {
+                    transactionTemplate.executeWithoutResult(status -> {
+                        save(appVersion);
+                        appVersionRepository.flush();
+                    });
+                    results.put(index, AppVersionBulkResult.created(index, appVersion.getId()));
+                } catch (DataAccessException itemException) {
+                    results.put(index, AppVersionBulkResult.failed(index, "dataaccess"));
                 }
-                if (appVersion.getLastModifiedBy() != null) {
-                    existingAppVersion.setLastModifiedBy(appVersion.getLastModifiedBy());
+            }
+        }
+        return new ArrayList<>(results.values());
+    }
+
+    /**
+     * Import new appVersions in a single transaction, as they are read, bypassing the Hibernate session.
+     * <p>
+     * Every imported appVersion is written to the outbox, by an {@link AppVersionsImportedEvent} per batch of
+     * {@code application.bulk.import-batch-size} rows, published once the batch has been written. Only the latest
+     * imported appVersion of each type is kept in memory, to publish one
+     * {@link AppVersionChangedEvent#imported(AppVersion) imported change} per type instead of one per row: that is enough
+     * for the caches to be evicted and for the latest appVersions to be indexed, since all the rows are new.
+     *
+     * @param appVersions the entities to import, with their id.
+     * @return the number of imported entities and the throughput of the import.
+     */
+    public AppVersionImportResult importAll(Iterator<AppVersion> appVersions) {
+        log.debug("Request to import AppVersions");
+        long start = System.nanoTime();
+        Map<AppVersionType, AppVersion> latestByType = new EnumMap<>(AppVersionType.class);
+        AppVersion[] lastImported = new AppVersion[1];
+        List<AppVersion> outboxBatch = new ArrayList<>(importBatchSize);
+        Iterator<AppVersion> tracked = StreamSupport
+            .stream(Spliterators.spliteratorUnknownSize(appVersions, Spliterator.ORDERED), false)
+            .peek(appVersion -> {
+                // the version column defaults to 0
+                appVersion.setVersion(0L);
+                if (LatestAppVersionIndex.isIndexable(appVersion)) {
+                    latestByType.merge(
+                        appVersion.getType(),
+                        appVersion,
+                        (current, offered) -> LatestAppVersionIndex.VERSION_ORDER.compare(offered, current) > 0 ? offered : current
+                    );
                 }
-                if (appVersion.getLastModifiedDate() != null) {
-                    existingAppVersion.setLastModifiedDate(appVersion.getLastModifiedDate());
+                lastImported[0] = appVersion;
+                outboxBatch.add(appVersion);
+            })
+            .iterator();
+        long[] reported = { 0 };
+        long rows = appVersionRepository.importAll(
+            tracked,
+            importBatchSize,
+            count -> {
+                // the batch has been written, so that the outbox can write its rows on the same connection
+                publishImported(outboxBatch);
+                if (count - reported[0] >= importProgressRows) {
+                    reported[0] = count;
+                    long rowsPerSecond = AppVersionImportResult.rowsPerSecond(count, System.nanoTime() - start);
+                    log.info("Imported {} AppVersions so far, {} rows/s", count, rowsPerSecond);
                 }
+            }
+        );
+        publishImported(outboxBatch);
+        latestByType.values().forEach(appVersion -> applicationEventPublisher.publishEvent(AppVersionChangedEvent.imported(appVersion)));
+        if (latestByType.isEmpty() && lastImported[0] != null) {
+            applicationEventPublisher.publishEvent(AppVersionChangedEvent.imported(lastImported[0]));
+        }
+        AppVersionImportResult result = new AppVersionImportResult(rows, System.nanoTime() - start);
+        log.info("Imported {} AppVersions in {} ms, {} rows/s", result.getRows(), result.getElapsedMillis(), result.getRowsPerSecond());
+        return result;
+    }
 
-                return existingAppVersion;
-            })
-            .map(appVersionRepository::save);
+    private void publishImported(List<AppVersion> appVersions) {
+        if (!appVersions.isEmpty()) {
+            applicationEventPublisher.publishEvent(new AppVersionsImportedEvent(List.copyOf(appVersions)));
+            appVersions.clear();
+        }
+    }
+
+    /**
+     * Update a appVersion.
+     * <p>
+     * The update is a single statement, which does not load the appVersion first.
+     *
+     * @param appVersion the entity to update.
+     * @param expectedVersion the version the entity must have, or {@code null} to update it whatever its version.
+     * @return the persisted entity, or empty if it does not exist.
+     * @throws org.springframework.orm.ObjectOptimisticLockingFailureException if the entity has another version.
+     */
+    public Optional<AppVersion> update(AppVersion appVersion, Long expectedVersion) {
+        log.debug("Request to update AppVersion : {}, version: {}", appVersion, expectedVersion);
+
+        Optional<AppVersion> result = appVersionRepository.update(appVersion, expectedVersion);
+        result.map(AppVersionChangedEvent::savedBypassingHibernate).ifPresent(applicationEventPublisher::publishEvent);
+        return result;
+    }
+
+    /**
+     * Create or update the appVersion with the natural key (type, major, minor, patch) of the given one, with a single
+     * statement, so that concurrent upserts of the same appVersion cannot both create it.
+     *
+     * @param appVersion the natural key and the new values of the other fields; its id and version are ignored.
+     * @return the persisted entity, with version 0 if it has been created.
+     */
+    public AppVersion upsert(AppVersion appVersion) {
+        log.debug("Request to upsert AppVersion : {}", appVersion);
+        AppVersion result = appVersionRepository.upsert(appVersion.id(idGenerator.next()));
+        applicationEventPublisher.publishEvent(AppVersionChangedEvent.savedBypassingHibernate(result));
+        return result;
+    }
+
+    /**
+     * Partially update a appVersion.
+     * <p>
+     * Only the non-null fields are updated, with a single statement which does not load the appVersion first. Without
+     * any non-null field, the appVersion is returned unchanged, and no change is published.
+     *
+     * @param appVersion the entity to update partially.
+     * @param expectedVersion the version the entity must have, or {@code null} to update it whatever its version.
+     * @return the persisted entity, or empty if it does not exist.
+     * @throws org.springframework.orm.ObjectOptimisticLockingFailureException if the entity has another version.
+     */
+    public Optional<AppVersion> partialUpdate(AppVersion appVersion, Long expectedVersion) {
+        log.debug("Request to partially update AppVersion : {}, version: {}", appVersion, expectedVersion);
+
+        Optional<AppVersion> result = appVersionRepository.partialUpdate(appVersion, expectedVersion);
+        if (AppVersionRepositoryWithUpdate.hasPartialUpdate(appVersion)) {
+            result.map(AppVersionChangedEvent::savedBypassingHibernate).ifPresent(applicationEventPublisher::publishEvent);
+        }
+        return result;
     }
 
     /**
@@ -100,6 +284,9 @@ public class AppVersionService {
 
     /**
      * Get one appVersion by id.
+     * <p>
+     * Read through the {@link #APP_VERSION_BY_ID_CACHE} cache, which {@link AppVersionCacheEvictor} evicts once a change
+     * is committed, and which is not filled with an appVersion changed while it was read, see {@link AppVersionByIdCache}.
      *
      * @param id the id of the entity.
      * @return the entity.
@@ -107,7 +294,21 @@ public class AppVersionService {
     @Transactional(readOnly = true)
     public Optional<AppVersion> findOne(UUID id) {
         log.debug("Request to get AppVersion : {}", id);
-        return appVersionRepository.findById(id);
+        return appVersionByIdCache.get(id, () -> appVersionRepository.findById(id));
+    }
+
+    /**
+     * Get one appVersion by id, only if it is in the {@link #APP_VERSION_BY_ID_CACHE} cache.
+     * <p>
+     * Runs outside of any transaction, so that it never touches the database.
+     *
+     * @param id the id of the entity.
+     * @return the entity, or empty if it is not cached.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Optional<AppVersion> findCachedOne(UUID id) {
+        log.debug("Request to get cached AppVersion : {}", id);
+        return appVersionByIdCache.get(id);
     }
 
     /**
@@ -118,5 +319,29 @@ public class AppVersionService {
     public void delete(UUID id) {
         log.debug("Request to delete AppVersion : {}", id);
         appVersionRepository.deleteById(id);
+        applicationEventPublisher.publishEvent(AppVersionChangedEvent.deleted(id));
+    }
+
+    /**
+     * Delete the appVersions matching the criteria with a single set-based statement, unless there are more than
+     * {@code maxRows} of them.
+     * <p>
+     * The matching rows are locked first, so that exactly those are deleted and announced by a
+     * {@link AppVersionChangedEvent#deleted(UUID) deleted} event each.
+     *
+     * @param criteria the criteria which the entities to delete should match.
+     * @param maxRows the maximum number of entities to delete.
+     * @return the ids of the deleted entities, or empty if more than {@code maxRows} entities match.
+     */
+    public Optional<List<UUID>> deleteByCriteria(AppVersionCriteria criteria, int maxRows) {
+        log.debug("Request to delete AppVersions by criteria : {}", criteria);
+        Specification<AppVersion> specification = appVersionQueryService.createSpecification(criteria);
+        List<UUID> ids = appVersionRepository.findIdsForDelete(specification, maxRows + 1);
+        if (ids.size() > maxRows) {
+            return Optional.empty();
+        }
+        appVersionRepository.deleteAllMatching(specification, ids);
+        ids.forEach(id -> applicationEventPublisher.publishEvent(AppVersionChangedEvent.deleted(id)));
+        return Optional.of(ids);
     }
 }
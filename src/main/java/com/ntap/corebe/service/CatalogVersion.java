@@ -0,0 +1,43 @@
+package com.ntap.corebe.service;
+
+import com.ntap.corebe.service.event.AppVersionChangedEvent;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Catalog-wide change version of the {@link com.ntap.corebe.domain.AppVersion}s, held in memory.
+ * <p>
+ * It is incremented after every committed change, so that results derived from the catalog can be keyed on it and
+ * become unreachable as soon as the catalog changes, instead of being tracked and evicted one by one.
+ * <p>
+ * The version is local to this instance and restarts on each boot, so it is only meaningful together with the
+ * {@link #getEpoch() epoch} when exposed outside of the instance.
+ */
+@Service
+public class CatalogVersion {
+
+    private final String epoch = UUID.randomUUID().toString().substring(0, 8);
+
+    private final AtomicLong version = new AtomicLong();
+
+    /**
+     * @return a random identifier of this instance's version sequence.
+     */
+    public String getEpoch() {
+        return epoch;
+    }
+
+    /**
+     * @return the current version of the catalog.
+     */
+    public long get() {
+        return version.get();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAppVersionChanged(AppVersionChangedEvent event) {
+        version.incrementAndGet();
+    }
+}
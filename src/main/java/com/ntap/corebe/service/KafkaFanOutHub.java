@@ -0,0 +1,745 @@
+package com.ntap.corebe.service;
+
+import com.ntap.corebe.config.ApplicationProperties;
+import com.ntap.corebe.config.KafkaProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+import javax.annotation.PreDestroy;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.errors.WakeupException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+/**
+ * Fans the records of Kafka topics out to any number of {@link Subscriber}s, with a single consumer per distinct set of
+ * topics and consumer properties.
+ * <p>
+ * Each shared consumer polls on its own thread and appends the records to a ring buffer of
+ * {@code application.kafka.fan-out-buffer-size} records, from which every subscriber reads at its own position. The
+ * subscriptions are reference counted: the first one starts the consumer, and closing the last one closes it. A
+ * subscriber only sees the records polled after it subscribed.
+ * <p>
+ * The records are handed to the subscribers from a delivery executor, so that a slow subscriber never stalls the
+ * consumer nor the other subscribers. At most {@code application.kafka.max-streams} subscriptions are open at a time,
+ * which also bounds the consumer and delivery threads. A subscriber falling more than
+ * {@code application.kafka.max-queued-records} records behind is evicted, and the records it missed are counted in
+ * the {@code kafka.fan.out.dropped.records} counter. The consumer thread only closes the subscriptions it evicts or
+ * fails: their subscribers are told from their delivery thread, once they return from the records they were handling.
+ * <p>
+ * A subscriber resuming from known offsets joins the shared consumer at the records following them when its ring
+ * buffer still holds these, not too far behind. Otherwise, it gets a consumer of its own, which is assigned the
+ * partitions of the topics and seeks to the offsets without joining the consumer group, so that reconnecting
+ * subscribers never trigger a rebalance, and which waits for its subscriber to be handed its records before polling
+ * again rather than evicting it. The subscriber moves back to the shared consumer as soon as it has caught up
+ * with it, starting it if need be, and its own consumer is closed. Resumed subscribers skip the records of offsets
+ * they were handed already.
+ */
+@Service
+public class KafkaFanOutHub {
+
+    private static final Duration POLL_TIMEOUT = Duration.ofSeconds(5);
+
+    private final Logger log = LoggerFactory.getLogger(KafkaFanOutHub.class);
+
+    private final KafkaProperties kafkaProperties;
+
+    private final Function<Map<String, Object>, Consumer<String, String>> consumerFactory;
+
+    private final int bufferSize;
+
+    private final int maxStreams;
+
+    private final int maxQueuedRecords;
+
+    private final ThreadPoolExecutor consumerExecutor;
+
+    private final ThreadPoolExecutor deliveryExecutor;
+
+    private final ThreadPoolExecutor failureExecutor;
+
+    private final Map<Key, SharedConsumer> sharedConsumers = new ConcurrentHashMap<>();
+
+    private final AtomicInteger activeStreams = new AtomicInteger();
+
+    private final Counter droppedRecords;
+
+    private final Counter evictedStreams;
+
+    @Autowired
+    public KafkaFanOutHub(KafkaProperties kafkaProperties, ApplicationProperties applicationProperties, MeterRegistry meterRegistry) {
+        this(kafkaProperties, applicationProperties, meterRegistry, KafkaConsumer::new);
+    }
+
+    KafkaFanOutHub(
+        KafkaProperties kafkaProperties,
+        ApplicationProperties applicationProperties,
+        MeterRegistry meterRegistry,
+        Function<Map<String, Object>, Consumer<String, String>> consumerFactory
+    ) {
+        this.kafkaProperties = kafkaProperties;
+        this.consumerFactory = consumerFactory;
+        this.bufferSize = applicationProperties.getKafka().getFanOutBufferSize();
+        this.maxStreams = applicationProperties.getKafka().getMaxStreams();
+        // a subscriber cannot lag behind records the ring buffer no longer holds
+        this.maxQueuedRecords = Math.min(applicationProperties.getKafka().getMaxQueuedRecords(), bufferSize);
+        // every shared consumer and every delivery serve at least one subscription, so neither pool ever needs more threads
+        this.consumerExecutor = new ThreadPoolExecutor(0, maxStreams, 60, TimeUnit.SECONDS, new SynchronousQueue<>());
+        this.deliveryExecutor = new ThreadPoolExecutor(0, maxStreams, 60, TimeUnit.SECONDS, new SynchronousQueue<>());
+        // tells the subscribers whose delivery was rejected of their failure, queueing rather than rejecting in turn
+        this.failureExecutor = new ThreadPoolExecutor(maxStreams, maxStreams, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>());
+        this.failureExecutor.allowCoreThreadTimeOut(true);
+        Gauge
+            .builder("kafka.fan.out.streams", activeStreams, AtomicInteger::get)
+            .description("Subscriptions open on the shared Kafka consumers")
+            .register(meterRegistry);
+        this.droppedRecords =
+            Counter
+                .builder("kafka.fan.out.dropped.records")
+                .description("Records not handed to the evicted subscribers of the shared Kafka consumers")
+                .register(meterRegistry);
+        this.evictedStreams =
+            Counter
+                .builder("kafka.fan.out.evicted.streams")
+                .description("Subscriptions closed for falling too far behind their shared Kafka consumer")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Subscribe to the records of topics, polled by the consumer shared with the other subscribers of the same topics
+     * and consumer properties.
+     *
+     * @param topics the topics to consume.
+     * @param consumerParams the consumer properties overriding the {@code kafka.consumer} ones.
+     * @param subscriber the subscriber to hand the records to.
+     * @return the subscription, to close once the subscriber leaves, or empty if {@code application.kafka.max-streams}
+     * subscriptions are already open.
+     */
+    public Optional<Subscription> subscribe(Collection<String> topics, Map<String, String> consumerParams, Subscriber subscriber) {
+        if (activeStreams.incrementAndGet() > maxStreams) {
+            activeStreams.decrementAndGet();
+            return Optional.empty();
+        }
+        Key key = new Key(new TreeSet<>(topics), new TreeMap<>(consumerParams));
+        Subscription subscription = new Subscription(key, subscriber);
+        // the consumer is created outside of the map computation, and only when there is no live one to share
+        SharedConsumer created = null;
+        try {
+            while (!attach(subscription, created, RecordRing::head)) {
+                created = new SharedConsumer(key, null);
+            }
+        } catch (RejectedExecutionException e) {
+            // the threads of consumers closed by their last subscriber may not have stopped yet
+            activeStreams.decrementAndGet();
+            return Optional.empty();
+        } finally {
+            if (created != null && subscription.sharedConsumer != created) {
+                created.consumer.close();
+            }
+        }
+        return Optional.of(subscription);
+    }
+
+    /**
+     * Attach a subscription to the live consumer of its key, or else to the given new consumer, started here.
+     *
+     * @param position the sequence number of the first record of the ring buffer to hand to the subscriber, or -1 if
+     * the subscriber cannot read from it.
+     * @return whether the subscription has been attached, which needs a new consumer if there is no live one.
+     */
+    private boolean attach(Subscription subscription, SharedConsumer created, ToLongFunction<RecordRing> position) {
+        boolean[] attached = { false };
+        sharedConsumers.compute(
+            subscription.key,
+            (key, sharedConsumer) -> {
+                if (sharedConsumer == null || sharedConsumer.closed) {
+                    if (created == null) {
+                        return sharedConsumer;
+                    }
+                    log.debug("Starting a shared Kafka consumer of topics {}", key.topics);
+                    consumerExecutor.execute(created::run);
+                    sharedConsumer = created;
+                }
+                long sequence = position.applyAsLong(sharedConsumer.ring);
+                if (sequence < 0) {
+                    return sharedConsumer;
+                }
+                subscription.sharedConsumer = sharedConsumer;
+                subscription.position = sequence;
+                sharedConsumer.subscriptions.add(subscription);
+                attached[0] = true;
+                return sharedConsumer;
+            }
+        );
+        return attached[0];
+    }
+
+    /**
+     * Subscribe to the records of topics from given offsets, polled by the shared consumer when it still buffers them,
+     * or else by a consumer of its own which is assigned all the partitions of the topics, outside of any consumer
+     * group, until the subscriber catches up with the shared consumer.
+     *
+     * @param topics the topics to consume.
+     * @param consumerParams the consumer properties overriding the {@code kafka.consumer} ones, but for the group.
+     * @param offsets the offsets of the next records to hand to the subscriber; the partitions without an offset start
+     * from {@code auto.offset.reset}.
+     * @param subscriber the subscriber to hand the records to.
+     * @return the subscription, to close once the subscriber leaves, or empty if {@code application.kafka.max-streams}
+     * subscriptions are already open.
+     */
+    public Optional<Subscription> resume(
+        Collection<String> topics,
+        Map<String, String> consumerParams,
+        Map<TopicPartition, Long> offsets,
+        Subscriber subscriber
+    ) {
+        if (activeStreams.incrementAndGet() > maxStreams) {
+            activeStreams.decrementAndGet();
+            return Optional.empty();
+        }
+        Key key = new Key(new TreeSet<>(topics), new TreeMap<>(consumerParams));
+        Subscription subscription = new Subscription(key, subscriber);
+        subscription.nextOffsets = new HashMap<>(offsets);
+        if (attach(subscription, null, ring -> resumePosition(ring, subscription, false))) {
+            log.debug("Resuming from {} on the shared Kafka consumer of topics {}", offsets, key.topics);
+            if (subscription.pendingPolls.getAndIncrement() == 0) {
+                subscription.scheduleDelivery();
+            }
+            return Optional.of(subscription);
+        }
+        SharedConsumer ownConsumer = new SharedConsumer(key, new HashMap<>(offsets));
+        subscription.sharedConsumer = ownConsumer;
+        ownConsumer.subscriptions.add(subscription);
+        try {
+            log.debug("Starting a Kafka consumer of topics {} resuming from {}", key.topics, offsets);
+            consumerExecutor.execute(ownConsumer::run);
+        } catch (RejectedExecutionException e) {
+            activeStreams.decrementAndGet();
+            ownConsumer.consumer.close();
+            return Optional.empty();
+        }
+        return Optional.of(subscription);
+    }
+
+    /**
+     * @param caughtUp whether the subscriber has been handed the last records of all its partitions, in which case the
+     * partitions without any buffered record are up to date as well.
+     * @return the sequence number of the first record of the ring buffer following the offsets handed to a resumed
+     * subscriber, or -1 if the ring buffer may not hold all the following records, or if the subscriber would be
+     * evicted right away.
+     */
+    private long resumePosition(RecordRing ring, Subscription subscription, boolean caughtUp) {
+        long position = ring.positionAfter(subscription.nextOffsets, caughtUp);
+        return position < 0 || ring.head() - position > maxQueuedRecords ? -1 : position;
+    }
+
+    /**
+     * @return the number of open subscriptions.
+     */
+    public int getActiveStreamCount() {
+        return activeStreams.get();
+    }
+
+    /**
+     * @return the number of consumers shared by the current subscriptions.
+     */
+    public int getSharedConsumerCount() {
+        return sharedConsumers.size();
+    }
+
+    @PreDestroy
+    public void stop() {
+        sharedConsumers.values().forEach(SharedConsumer::close);
+        consumerExecutor.shutdown();
+        deliveryExecutor.shutdown();
+        failureExecutor.shutdown();
+    }
+
+    private void unsubscribe(Subscription subscription) {
+        activeStreams.decrementAndGet();
+        detach(subscription);
+    }
+
+    private void detach(Subscription subscription) {
+        if (subscription.sharedConsumer.resumeOffsets != null) {
+            subscription.sharedConsumer.close();
+            return;
+        }
+        sharedConsumers.computeIfPresent(
+            subscription.key,
+            (k, sharedConsumer) -> {
+                sharedConsumer.subscriptions.remove(subscription);
+                if (!sharedConsumer.subscriptions.isEmpty()) {
+                    return sharedConsumer;
+                }
+                log.debug("Closing the shared Kafka consumer of topics {}, which has no subscriber left", k.topics);
+                sharedConsumer.close();
+                return null;
+            }
+        );
+    }
+
+    /**
+     * Receives the records of the topics it subscribed to, from a delivery thread, one call at a time.
+     */
+    public interface Subscriber {
+        /**
+         * Handle the records polled since the last call, after one or more polls.
+         *
+         * @param records the new records, possibly none.
+         * @throws IOException if the records cannot be handled, which closes the subscription.
+         */
+        void onRecords(List<ConsumerRecord<String, String>> records) throws IOException;
+
+        /**
+         * Handle the failure of the subscription, which is closed already, from the delivery thread once the last call
+         * to {@link #onRecords} has returned.
+         *
+         * @param error the failure of the shared consumer, the eviction of the subscriber, or the failure of
+         * {@link #onRecords}.
+         */
+        void onError(Exception error);
+    }
+
+    /**
+     * The subscription of a {@link Subscriber} to a shared consumer.
+     */
+    public final class Subscription implements AutoCloseable {
+
+        private final Key key;
+
+        private final Subscriber subscriber;
+
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        /**
+         * The first failure of the subscription, handed to the subscriber once.
+         */
+        private final AtomicReference<Exception> failure = new AtomicReference<>();
+
+        private final AtomicBoolean failureHandled = new AtomicBoolean();
+
+        /**
+         * The number of polls not handed to the subscriber yet, a delivery being scheduled as long as it is not zero.
+         */
+        private final AtomicInteger pendingPolls = new AtomicInteger();
+
+        /**
+         * The consumer polling the records, only changed by the delivery of a resumed subscription joining the shared
+         * consumer.
+         */
+        private volatile SharedConsumer sharedConsumer;
+
+        /**
+         * The sequence number of the next record to hand to the subscriber, only written by its delivery.
+         */
+        private volatile long position;
+
+        /**
+         * The offsets of the next records to hand to a resumed subscriber, by partition, or {@code null}.
+         */
+        private Map<TopicPartition, Long> nextOffsets;
+
+        private Subscription(Key key, Subscriber subscriber) {
+            this.key = key;
+            this.subscriber = subscriber;
+        }
+
+        /**
+         * Stop handing records to the subscriber, and close the shared consumer if it was its last subscriber.
+         */
+        @Override
+        public void close() {
+            if (closed.compareAndSet(false, true)) {
+                unsubscribe(this);
+            }
+        }
+
+        /**
+         * Close the subscription and schedule a delivery to hand the error to the subscriber, without ever calling it
+         * from the consumer thread: a subscriber blocked in {@link Subscriber#onRecords} may well block in
+         * {@link Subscriber#onError} too, until it returns.
+         */
+        private void fail(Exception error) {
+            failure.compareAndSet(null, error);
+            close();
+            if (pendingPolls.getAndIncrement() == 0) {
+                scheduleDelivery();
+            }
+        }
+
+        private void handleFailure() {
+            Exception error = failure.get();
+            if (error != null && failureHandled.compareAndSet(false, true)) {
+                subscriber.onError(error);
+            }
+        }
+
+        /**
+         * @param polledBefore the sequence number of the first record of the last poll, which the subscriber could not
+         * have handled yet.
+         */
+        private void requestDelivery(SharedConsumer from, long polledBefore) {
+            if (closed.get() || from != sharedConsumer) {
+                return;
+            }
+            long behind = polledBefore - position;
+            if (behind > maxQueuedRecords) {
+                long dropped = sharedConsumer.ring.head() - position;
+                log.warn("Evicting a subscriber of Kafka topics {}, {} records behind", key.topics, dropped);
+                fail(new IllegalStateException("Subscriber fell " + dropped + " records behind"));
+                evictedStreams.increment();
+                droppedRecords.increment(dropped);
+                return;
+            }
+            if (pendingPolls.getAndIncrement() == 0) {
+                scheduleDelivery();
+            }
+        }
+
+        private void scheduleDelivery() {
+            try {
+                deliveryExecutor.execute(this::deliver);
+            } catch (RejectedExecutionException e) {
+                failure.compareAndSet(null, e);
+                close();
+                failureExecutor.execute(this::handleFailure);
+            }
+        }
+
+        private void deliver() {
+            int polls;
+            do {
+                polls = pendingPolls.get();
+                if (closed.get()) {
+                    handleFailure();
+                    return;
+                }
+                RecordRing ring = sharedConsumer.ring;
+                long oldest = ring.oldest();
+                if (position < oldest) {
+                    droppedRecords.increment(oldest - position);
+                    position = oldest;
+                }
+                List<ConsumerRecord<String, String>> records = ring.readFrom(position);
+                try {
+                    subscriber.onRecords(nextOffsets == null ? records : skipHandedRecords(records));
+                } catch (Exception e) {
+                    log.trace("Subscriber of Kafka topics {} failed: {}", key.topics, e.getMessage(), e);
+                    failure.compareAndSet(null, e);
+                    close();
+                    handleFailure();
+                    return;
+                }
+                position += records.size();
+                if (sharedConsumer.resumeOffsets != null) {
+                    sharedConsumer.delivered();
+                    if (rejoin()) {
+                        // hand the records the shared consumer buffers after the offsets without waiting for its next poll
+                        pendingPolls.incrementAndGet();
+                    }
+                }
+            } while (pendingPolls.addAndGet(-polls) > 0);
+        }
+
+        private List<ConsumerRecord<String, String>> skipHandedRecords(List<ConsumerRecord<String, String>> records) {
+            List<ConsumerRecord<String, String>> newRecords = new ArrayList<>(records.size());
+            for (ConsumerRecord<String, String> record : records) {
+                TopicPartition partition = new TopicPartition(record.topic(), record.partition());
+                Long nextOffset = nextOffsets.get(partition);
+                if (nextOffset == null || record.offset() >= nextOffset) {
+                    newRecords.add(record);
+                    nextOffsets.put(partition, record.offset() + 1);
+                }
+            }
+            return newRecords;
+        }
+
+        /**
+         * Move a resumed subscription from its own consumer to the shared one, once the ring buffer of the shared
+         * consumer holds the records following the ones handed to the subscriber, or once the subscriber has caught up
+         * with its own consumer, starting a shared consumer if there is none.
+         *
+         * @return whether the subscription has moved.
+         */
+        private boolean rejoin() {
+            SharedConsumer ownConsumer = sharedConsumer;
+            boolean caughtUp = ownConsumer.caughtUp && position == ownConsumer.ring.head();
+            if (!attach(this, null, ring -> resumePosition(ring, this, caughtUp))) {
+                SharedConsumer live = sharedConsumers.get(key);
+                if (!caughtUp || (live != null && !live.closed)) {
+                    // try again after the next poll
+                    return false;
+                }
+                SharedConsumer created = new SharedConsumer(key, null);
+                try {
+                    if (!attach(this, created, ring -> resumePosition(ring, this, true))) {
+                        return false;
+                    }
+                } catch (RejectedExecutionException e) {
+                    return false;
+                } finally {
+                    if (sharedConsumer != created) {
+                        created.consumer.close();
+                    }
+                }
+            }
+            log.debug("Resumed subscriber of Kafka topics {} caught up with the shared consumer", key.topics);
+            ownConsumer.subscriptions.remove(this);
+            ownConsumer.close();
+            if (closed.get()) {
+                // closed while moving, possibly from the consumer it has left
+                detach(this);
+            }
+            return true;
+        }
+    }
+
+    private final class SharedConsumer {
+
+        private final Key key;
+
+        private final Consumer<String, String> consumer;
+
+        private final RecordRing ring = new RecordRing(bufferSize);
+
+        private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+
+        /**
+         * The offsets to seek to when the consumer is not shared but assigned the partitions of its topics, or
+         * {@code null}.
+         */
+        private final Map<TopicPartition, Long> resumeOffsets;
+
+        private volatile boolean closed;
+
+        /**
+         * Whether the last poll returned no record.
+         */
+        private volatile boolean caughtUp;
+
+        private SharedConsumer(Key key, Map<TopicPartition, Long> resumeOffsets) {
+            this.key = key;
+            this.resumeOffsets = resumeOffsets;
+            Map<String, Object> consumerProps = kafkaProperties.getConsumerProps();
+            consumerProps.putAll(key.consumerParams);
+            if (resumeOffsets != null) {
+                consumerProps.remove(ConsumerConfig.GROUP_ID_CONFIG);
+                consumerProps.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, "false");
+            }
+            this.consumer = consumerFactory.apply(consumerProps);
+        }
+
+        private void run() {
+            try {
+                if (resumeOffsets == null) {
+                    consumer.subscribe(key.topics);
+                } else {
+                    assignAndSeek();
+                }
+                while (!closed) {
+                    long polledBefore = ring.head();
+                    ConsumerRecords<String, String> records = consumer.poll(POLL_TIMEOUT);
+                    ring.addAll(records);
+                    caughtUp = records.isEmpty();
+                    for (Subscription subscription : subscriptions) {
+                        subscription.requestDelivery(this, polledBefore);
+                        if (resumeOffsets != null) {
+                            awaitDelivery(subscription);
+                        }
+                    }
+                }
+            } catch (WakeupException e) {
+                // closing
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                log.warn("Shared Kafka consumer of topics {} failed: {}", key.topics, e.getMessage());
+                sharedConsumers.remove(key, this);
+                closed = true;
+                subscriptions.forEach(subscription -> subscription.fail(e));
+            } finally {
+                consumer.close();
+            }
+        }
+
+        private void assignAndSeek() {
+            List<TopicPartition> partitions = new ArrayList<>();
+            for (String topic : key.topics) {
+                List<PartitionInfo> partitionInfos = consumer.partitionsFor(topic);
+                if (partitionInfos != null) {
+                    partitionInfos.forEach(info -> partitions.add(new TopicPartition(info.topic(), info.partition())));
+                }
+            }
+            consumer.assign(partitions);
+            for (TopicPartition partition : partitions) {
+                Long offset = resumeOffsets.get(partition);
+                if (offset != null) {
+                    consumer.seek(partition, offset);
+                }
+            }
+        }
+
+        /**
+         * Wait for the subscriber of a consumer which is not shared to be handed the records polled, or to leave.
+         */
+        private synchronized void awaitDelivery(Subscription subscription) throws InterruptedException {
+            while (!closed && !subscription.closed.get() && subscription.sharedConsumer == this && subscription.position < ring.head()) {
+                wait(POLL_TIMEOUT.toMillis());
+            }
+        }
+
+        private synchronized void delivered() {
+            notifyAll();
+        }
+
+        private void close() {
+            closed = true;
+            consumer.wakeup();
+            delivered();
+        }
+    }
+
+    /**
+     * A fixed-size buffer of the last records polled, numbered by sequence.
+     */
+    static final class RecordRing {
+
+        private final ConsumerRecord<String, String>[] slots;
+
+        private long head;
+
+        @SuppressWarnings("unchecked")
+        RecordRing(int size) {
+            this.slots = new ConsumerRecord[size];
+        }
+
+        synchronized void addAll(Iterable<ConsumerRecord<String, String>> records) {
+            for (ConsumerRecord<String, String> record : records) {
+                slots[(int) (head % slots.length)] = record;
+                head++;
+            }
+        }
+
+        /**
+         * @return the sequence number of the next record.
+         */
+        synchronized long head() {
+            return head;
+        }
+
+        /**
+         * @return the sequence number of the oldest record still buffered.
+         */
+        synchronized long oldest() {
+            return Math.max(0, head - slots.length);
+        }
+
+        /**
+         * @param nextOffsets the offsets of the next records to read, by partition.
+         * @param caughtUp whether the partitions without any buffered record have no record past their offset yet.
+         * @return the sequence number of the first buffered record following the offsets, or -1 if some of the
+         * records following them may not be buffered.
+         */
+        synchronized long positionAfter(Map<TopicPartition, Long> nextOffsets, boolean caughtUp) {
+            long position = head;
+            for (Map.Entry<TopicPartition, Long> nextOffset : nextOffsets.entrySet()) {
+                long partitionPosition = positionAfter(nextOffset.getKey(), nextOffset.getValue(), caughtUp);
+                if (partitionPosition < 0) {
+                    return -1;
+                }
+                position = Math.min(position, partitionPosition);
+            }
+            return position;
+        }
+
+        private long positionAfter(TopicPartition partition, long nextOffset, boolean caughtUp) {
+            // an older record of the partition shows that the following ones are all buffered, whatever their offsets
+            boolean olderRecord = false;
+            for (long sequence = oldest(); sequence < head; sequence++) {
+                ConsumerRecord<String, String> record = slots[(int) (sequence % slots.length)];
+                if (record.partition() == partition.partition() && record.topic().equals(partition.topic())) {
+                    if (record.offset() >= nextOffset) {
+                        return olderRecord || record.offset() == nextOffset ? sequence : -1;
+                    }
+                    olderRecord = true;
+                }
+            }
+            return olderRecord || caughtUp ? head : -1;
+        }
+
+        /**
+         * @return the buffered records from a sequence number on.
+         */
+        synchronized List<ConsumerRecord<String, String>> readFrom(long position) {
+            long start = Math.max(position, oldest());
+            List<ConsumerRecord<String, String>> records = new ArrayList<>((int) (head - start));
+            for (long sequence = start; sequence < head; sequence++) {
+                records.add(slots[(int) (sequence % slots.length)]);
+            }
+            return records;
+        }
+    }
+
+    private static final class Key {
+
+        private final SortedSet<String> topics;
+
+        private final SortedMap<String, String> consumerParams;
+
+        private Key(SortedSet<String> topics, SortedMap<String, String> consumerParams) {
+            this.topics = topics;
+            this.consumerParams = consumerParams;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            return topics.equals(key.topics) && consumerParams.equals(key.consumerParams);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(topics, consumerParams);
+        }
+    }
+}
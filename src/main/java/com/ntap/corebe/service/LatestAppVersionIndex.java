@@ -0,0 +1,145 @@
+package com.ntap.corebe.service;
+
+import com.ntap.corebe.domain.AppVersion;
+import com.ntap.corebe.domain.enumeration.AppVersionType;
+import com.ntap.corebe.repository.AppVersionRepository;
+import com.ntap.corebe.service.event.AppVersionChangedEvent;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * In-memory index of the latest {@link AppVersion} of each {@link AppVersionType}.
+ * <p>
+ * The index is rebuilt from the database at startup, then maintained incrementally from the
+ * {@link AppVersionChangedEvent}s published by {@link AppVersionService} once their transaction has committed.
+ * Reads never touch the database. Only appVersions with a major, minor and patch are taken into account.
+ */
+@Service
+public class LatestAppVersionIndex {
+
+    static final Comparator<AppVersion> VERSION_ORDER = Comparator
+        .comparing(AppVersion::getMajor)
+        .thenComparing(AppVersion::getMinor)
+        .thenComparing(AppVersion::getPatch);
+
+    private final Logger log = LoggerFactory.getLogger(LatestAppVersionIndex.class);
+
+    private final ConcurrentMap<AppVersionType, AppVersion> latestByType = new ConcurrentHashMap<>();
+
+    private final AppVersionRepository appVersionRepository;
+
+    public LatestAppVersionIndex(AppVersionRepository appVersionRepository) {
+        this.appVersionRepository = appVersionRepository;
+    }
+
+    /**
+     * Get the latest appVersion of a type.
+     *
+     * @param type the type of the appVersion.
+     * @return a copy of the latest appVersion of that type, if any.
+     */
+    public Optional<AppVersion> getLatest(AppVersionType type) {
+        return Optional.ofNullable(latestByType.get(type)).map(LatestAppVersionIndex::copyOf);
+    }
+
+    /**
+     * Rebuild the whole index from the database.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        log.debug("Rebuilding latest AppVersion index");
+        Map<AppVersionType, AppVersion> rebuilt = new EnumMap<>(AppVersionType.class);
+        for (AppVersionType type : AppVersionType.values()) {
+            findLatestInDatabase(type).ifPresent(latest -> rebuilt.put(type, latest));
+        }
+        latestByType.keySet().retainAll(rebuilt.keySet());
+        latestByType.putAll(rebuilt);
+    }
+
+    /**
+     * Apply a committed change to the index.
+     * <p>
+     * A newer appVersion simply replaces the current entry of its type. If the changed appVersion was the current
+     * latest of a type (and may since have been downgraded, moved to another type or deleted), that type is reloaded
+     * from the database. Remote changes carry no state, so the type they affect is reloaded as well.
+     *
+     * @param event the change.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAppVersionChanged(AppVersionChangedEvent event) {
+        log.debug("Updating latest AppVersion index for {}", event);
+        for (Map.Entry<AppVersionType, AppVersion> entry : latestByType.entrySet()) {
+            if (event.getId().equals(entry.getValue().getId())) {
+                refresh(entry.getKey());
+            }
+        }
+        if (event.isRemote()) {
+            event.getType().ifPresent(this::refresh);
+        } else {
+            event
+                .getAppVersion()
+                .filter(LatestAppVersionIndex::isIndexable)
+                .map(LatestAppVersionIndex::copyOf)
+                .ifPresent(this::offer);
+        }
+    }
+
+    private void offer(AppVersion candidate) {
+        latestByType.merge(
+            candidate.getType(),
+            candidate,
+            (current, offered) -> VERSION_ORDER.compare(offered, current) > 0 ? offered : current
+        );
+    }
+
+    private void refresh(AppVersionType type) {
+        Optional<AppVersion> latest = findLatestInDatabase(type);
+        if (latest.isPresent()) {
+            latestByType.put(type, latest.get());
+        } else {
+            latestByType.remove(type);
+        }
+    }
+
+    private Optional<AppVersion> findLatestInDatabase(AppVersionType type) {
+        return appVersionRepository
+            .findFirstByTypeAndMajorNotNullAndMinorNotNullAndPatchNotNullOrderByMajorDescMinorDescPatchDesc(type)
+            .map(LatestAppVersionIndex::copyOf);
+    }
+
+    static boolean isIndexable(AppVersion appVersion) {
+        return (
+            appVersion.getType() != null && appVersion.getMajor() != null && appVersion.getMinor() != null && appVersion.getPatch() != null
+        );
+    }
+
+    /**
+     * Detached copy, so that the index never shares an instance with a persistence context or a caller.
+     */
+    private static AppVersion copyOf(AppVersion appVersion) {
+        return new AppVersion()
+            .id(appVersion.getId())
+            .major(appVersion.getMajor())
+            .minor(appVersion.getMinor())
+            .patch(appVersion.getPatch())
+            .releaseDate(appVersion.getReleaseDate())
+            .description(appVersion.getDescription())
+            .location(appVersion.getLocation())
+            .type(appVersion.getType())
+            .createdBy(appVersion.getCreatedBy())
+            .createdDate(appVersion.getCreatedDate())
+            .lastModifiedBy(appVersion.getLastModifiedBy())
+            .lastModifiedDate(appVersion.getLastModifiedDate())
+            .version(appVersion.getVersion());
+    }
+}
@@ -0,0 +1,67 @@
+package com.ntap.corebe.service.dto;
+
+import java.io.Serializable;
+import java.util.UUID;
+
+/**
+ * The outcome of one item of a bulk write of {@link com.ntap.corebe.domain.AppVersion}s.
+ */
+public class AppVersionBulkResult implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int index;
+
+    private final UUID id;
+
+    private final String error;
+
+    private AppVersionBulkResult(int index, UUID id, String error) {
+        this.index = index;
+        this.id = id;
+        this.error = error;
+    }
+
+    public static AppVersionBulkResult created(int index, UUID id) {
+        return new AppVersionBulkResult(index, id, null);
+    }
+
+    public static AppVersionBulkResult failed(int index, String error) {
+        return new AppVersionBulkResult(index, null, error);
+    }
+
+    /**
+     * @return the position of the item in the request.
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    /**
+     * @return the id of the created appVersion, or {@code null} if it failed.
+     */
+    public UUID getId() {
+        return id;
+    }
+
+    /**
+     * @return the error key of the failure, or {@code null} if the appVersion was created.
+     */
+    public String getError() {
+        return error;
+    }
+
+    public boolean isCreated() {
+        return error == null;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "AppVersionBulkResult{" +
+            "index=" + getIndex() +
+            ", id=" + getId() +
+            ", error='" + getError() + "'" +
+            "}";
+    }
+}
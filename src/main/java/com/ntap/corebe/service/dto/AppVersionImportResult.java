@@ -0,0 +1,53 @@
+package com.ntap.corebe.service.dto;
+
+import java.io.Serializable;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The outcome of an import of {@link com.ntap.corebe.domain.AppVersion}s.
+ */
+public class AppVersionImportResult implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final long rows;
+
+    private final long elapsedMillis;
+
+    public AppVersionImportResult(long rows, long elapsedNanos) {
+        this.rows = rows;
+        this.elapsedMillis = TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+    }
+
+    /**
+     * @return the number of imported appVersions.
+     */
+    public long getRows() {
+        return rows;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    /**
+     * @return the throughput of the import.
+     */
+    public long getRowsPerSecond() {
+        return rowsPerSecond(rows, TimeUnit.MILLISECONDS.toNanos(elapsedMillis));
+    }
+
+    public static long rowsPerSecond(long rows, long elapsedNanos) {
+        return elapsedNanos <= 0 ? rows : rows * TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "AppVersionImportResult{" +
+            "rows=" + rows +
+            ", elapsedMillis=" + elapsedMillis +
+            ", rowsPerSecond=" + getRowsPerSecond() +
+            "}";
+    }
+}
@@ -0,0 +1,75 @@
+package com.ntap.corebe.service.event;
+
+import com.ntap.corebe.domain.AppVersion;
+import java.util.UUID;
+
+/**
+ * A committed {@link AppVersion} change, as relayed to Kafka from the outbox, keyed by the appVersion id.
+ */
+public class AppVersionChangeMessage {
+
+    private UUID id;
+
+    private boolean deleted;
+
+    private AppVersion appVersion;
+
+    private long timestamp;
+
+    public AppVersionChangeMessage() {}
+
+    public AppVersionChangeMessage(AppVersionChangedEvent event, long timestamp) {
+        this.id = event.getId();
+        this.deleted = event.isDeleted();
+        this.appVersion = event.getAppVersion().orElse(null);
+        this.timestamp = timestamp;
+    }
+
+    public UUID getId() {
+        return id;
+    }
+
+    public void setId(UUID id) {
+        this.id = id;
+    }
+
+    public boolean isDeleted() {
+        return deleted;
+    }
+
+    public void setDeleted(boolean deleted) {
+        this.deleted = deleted;
+    }
+
+    /**
+     * @return the state of the appVersion after the change, or {@code null} if it has been deleted.
+     */
+    public AppVersion getAppVersion() {
+        return appVersion;
+    }
+
+    public void setAppVersion(AppVersion appVersion) {
+        this.appVersion = appVersion;
+    }
+
+    /**
+     * @return the epoch millisecond at which the change was made.
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public void setTimestamp(long timestamp) {
+        this.timestamp = timestamp;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "AppVersionChangeMessage{" +
+            "id=" + id +
+            ", deleted=" + deleted +
+            ", timestamp=" + timestamp +
+            "}";
+    }
+}
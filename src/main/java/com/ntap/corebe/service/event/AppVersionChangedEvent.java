@@ -0,0 +1,159 @@
+package com.ntap.corebe.service.event;
+
+import com.ntap.corebe.domain.AppVersion;
+import com.ntap.corebe.domain.enumeration.AppVersionType;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Application event published by {@link com.ntap.corebe.service.AppVersionService} whenever an {@link AppVersion} is
+ * created, updated or deleted.
+ * <p>
+ * Listeners that keep derived in-memory state should consume it with a
+ * {@link org.springframework.transaction.event.TransactionalEventListener}, so that they only observe committed changes.
+ * <p>
+ * Changes committed by another instance of the cluster are re-published locally as {@link #isRemote() remote} events.
+ * Those only carry the id and type of the appVersion, and are published outside of any transaction.
+ * <p>
+ * Changes written with SQL statements that bypass the Hibernate session are published as
+ * {@link #isBypassingHibernate() bypassing Hibernate}: like remote ones, they leave the second-level and query caches of
+ * Hibernate stale.
+ * <p>
+ * An import publishes a single {@link #isImported() imported} event per type, standing for all its appVersions as far
+ * as the caches are concerned; the imported appVersions are written to the outbox one by one, see
+ * {@link AppVersionsImportedEvent}.
+ */
+public class AppVersionChangedEvent {
+
+    private final UUID id;
+
+    private final AppVersionType type;
+
+    private final AppVersion appVersion;
+
+    private final boolean deleted;
+
+    private final boolean remote;
+
+    private final boolean bypassingHibernate;
+
+    private final boolean imported;
+
+    private AppVersionChangedEvent(
+        UUID id,
+        AppVersionType type,
+        AppVersion appVersion,
+        boolean deleted,
+        boolean remote,
+        boolean bypassingHibernate,
+        boolean imported
+    ) {
+        this.id = id;
+        this.type = type;
+        this.appVersion = appVersion;
+        this.deleted = deleted;
+        this.remote = remote;
+        this.bypassingHibernate = bypassingHibernate;
+        this.imported = imported;
+    }
+
+    /**
+     * Create an event for a created or updated appVersion.
+     *
+     * @param appVersion the persisted entity.
+     * @return the event.
+     */
+    public static AppVersionChangedEvent saved(AppVersion appVersion) {
+        return new AppVersionChangedEvent(appVersion.getId(), appVersion.getType(), appVersion, false, false, false, false);
+    }
+
+    /**
+     * Create an event for a created or updated appVersion, written by a statement which bypassed the Hibernate session.
+     *
+     * @param appVersion the persisted state of the entity.
+     * @return the event.
+     */
+    public static AppVersionChangedEvent savedBypassingHibernate(AppVersion appVersion) {
+        return new AppVersionChangedEvent(appVersion.getId(), appVersion.getType(), appVersion, false, false, true, false);
+    }
+
+    /**
+     * Create an event standing for the appVersions of an import, which are new and written by statements which
+     * bypassed the Hibernate session.
+     *
+     * @param appVersion the latest imported appVersion of a type, or any imported appVersion if none has a type.
+     * @return the event.
+     */
+    public static AppVersionChangedEvent imported(AppVersion appVersion) {
+        return new AppVersionChangedEvent(appVersion.getId(), appVersion.getType(), appVersion, false, false, true, true);
+    }
+
+    /**
+     * Create an event for a deleted appVersion.
+     *
+     * @param id the id of the deleted entity.
+     * @return the event.
+     */
+    public static AppVersionChangedEvent deleted(UUID id) {
+        return new AppVersionChangedEvent(id, null, null, true, false, false, false);
+    }
+
+    /**
+     * Create an event for a change committed by another instance.
+     *
+     * @param id the id of the entity.
+     * @param type the type of the entity after the change, if known.
+     * @param deleted whether the entity has been deleted.
+     * @return the event.
+     */
+    public static AppVersionChangedEvent remote(UUID id, AppVersionType type, boolean deleted) {
+        return new AppVersionChangedEvent(id, type, null, deleted, true, false, false);
+    }
+
+    public UUID getId() {
+        return id;
+    }
+
+    /**
+     * @return the type of the appVersion after the change, or empty if it has been deleted or is unknown.
+     */
+    public Optional<AppVersionType> getType() {
+        return Optional.ofNullable(type);
+    }
+
+    /**
+     * @return the persisted state of the appVersion, or empty if it has been deleted or the change is remote.
+     */
+    public Optional<AppVersion> getAppVersion() {
+        return Optional.ofNullable(appVersion);
+    }
+
+    public boolean isDeleted() {
+        return deleted;
+    }
+
+    public boolean isRemote() {
+        return remote;
+    }
+
+    public boolean isBypassingHibernate() {
+        return bypassingHibernate;
+    }
+
+    public boolean isImported() {
+        return imported;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "AppVersionChangedEvent{" +
+            "id=" + id +
+            ", type=" + type +
+            ", deleted=" + deleted +
+            ", remote=" + remote +
+            ", bypassingHibernate=" + bypassingHibernate +
+            ", imported=" + imported +
+            "}";
+    }
+}
@@ -0,0 +1,93 @@
+package com.ntap.corebe.service.event;
+
+import com.ntap.corebe.domain.enumeration.AppVersionType;
+import java.util.UUID;
+
+/**
+ * Compact notification of a committed {@link com.ntap.corebe.domain.AppVersion} change, exchanged between the
+ * instances of the cluster over Kafka so that they can evict their local state.
+ */
+public class AppVersionInvalidationMessage {
+
+    private UUID id;
+
+    private AppVersionType type;
+
+    private boolean deleted;
+
+    private String origin;
+
+    private long timestamp;
+
+    public AppVersionInvalidationMessage() {}
+
+    public AppVersionInvalidationMessage(AppVersionChangedEvent event, String origin, long timestamp) {
+        this.id = event.getId();
+        this.type = event.getType().orElse(null);
+        this.deleted = event.isDeleted();
+        this.origin = origin;
+        this.timestamp = timestamp;
+    }
+
+    public UUID getId() {
+        return id;
+    }
+
+    public void setId(UUID id) {
+        this.id = id;
+    }
+
+    public AppVersionType getType() {
+        return type;
+    }
+
+    public void setType(AppVersionType type) {
+        this.type = type;
+    }
+
+    public boolean isDeleted() {
+        return deleted;
+    }
+
+    public void setDeleted(boolean deleted) {
+        this.deleted = deleted;
+    }
+
+    /**
+     * @return the id of the instance which committed the change.
+     */
+    public String getOrigin() {
+        return origin;
+    }
+
+    public void setOrigin(String origin) {
+        this.origin = origin;
+    }
+
+    /**
+     * @return the epoch millisecond at which the change was committed.
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public void setTimestamp(long timestamp) {
+        this.timestamp = timestamp;
+    }
+
+    public AppVersionChangedEvent toEvent() {
+        return AppVersionChangedEvent.remote(id, type, deleted);
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "AppVersionInvalidationMessage{" +
+            "id=" + id +
+            ", type=" + type +
+            ", deleted=" + deleted +
+            ", origin='" + origin + "'" +
+            ", timestamp=" + timestamp +
+            "}";
+    }
+}
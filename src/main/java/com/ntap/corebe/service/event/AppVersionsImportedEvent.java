@@ -0,0 +1,32 @@
+package com.ntap.corebe.service.event;
+
+import com.ntap.corebe.domain.AppVersion;
+import java.util.List;
+
+/**
+ * Application event published by {@link com.ntap.corebe.service.AppVersionService} for each batch of imported
+ * {@link AppVersion}s, in the import transaction, so that every one of them is written to the outbox.
+ * <p>
+ * The caches are not evicted per imported appVersion: the import also publishes an
+ * {@link AppVersionChangedEvent#imported(AppVersion) imported} {@link AppVersionChangedEvent} per type for that.
+ */
+public class AppVersionsImportedEvent {
+
+    private final List<AppVersion> appVersions;
+
+    public AppVersionsImportedEvent(List<AppVersion> appVersions) {
+        this.appVersions = appVersions;
+    }
+
+    public List<AppVersion> getAppVersions() {
+        return appVersions;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "AppVersionsImportedEvent{" +
+            "appVersions=" + appVersions.size() +
+            "}";
+    }
+}
@@ -1,22 +1,56 @@
 package com.ntap.corebe.web.rest;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.ntap.corebe.config.ApplicationProperties;
 import com.ntap.corebe.domain.AppVersion;
-import com.ntap.corebe.repository.AppVersionRepository;
+import com.ntap.corebe.domain.enumeration.AppVersionType;
+import com.ntap.corebe.service.AppVersionCursor;
+import com.ntap.corebe.service.AppVersionImportReader;
 import com.ntap.corebe.service.AppVersionQueryService;
 import com.ntap.corebe.service.AppVersionService;
+import com.ntap.corebe.service.CatalogVersion;
+import com.ntap.corebe.service.LatestAppVersionIndex;
 import com.ntap.corebe.service.criteria.AppVersionCriteria;
+import com.ntap.corebe.service.dto.AppVersionBulkResult;
+import com.ntap.corebe.service.dto.AppVersionImportResult;
 import com.ntap.corebe.web.rest.errors.BadRequestAlertException;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Supplier;
+import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 import tech.jhipster.web.util.HeaderUtil;
 import tech.jhipster.web.util.ResponseUtil;
 
@@ -31,23 +65,42 @@ public class AppVersionResource {
 
     private static final String ENTITY_NAME = "corebeAppVersion";
 
+    private static final int DEFAULT_PAGE_SIZE = 20;
+
+    private static final int MAX_PAGE_SIZE = 1000;
+
     @Value("${jhipster.clientApp.name}")
     private String applicationName;
 
     private final AppVersionService appVersionService;
 
-    private final AppVersionRepository appVersionRepository;
-
     private final AppVersionQueryService appVersionQueryService;
 
+    private final LatestAppVersionIndex latestAppVersionIndex;
+
+    private final CatalogVersion catalogVersion;
+
+    private final ObjectMapper objectMapper;
+
+    private final int maxBulkItems;
+
+    private final int maxDeletedItems;
+
     public AppVersionResource(
         AppVersionService appVersionService,
-        AppVersionRepository appVersionRepository,
-        AppVersionQueryService appVersionQueryService
+        AppVersionQueryService appVersionQueryService,
+        LatestAppVersionIndex latestAppVersionIndex,
+        CatalogVersion catalogVersion,
+        ObjectMapper objectMapper,
+        ApplicationProperties applicationProperties
     ) {
         this.appVersionService = appVersionService;
-        this.appVersionRepository = appVersionRepository;
         this.appVersionQueryService = appVersionQueryService;
+        this.latestAppVersionIndex = latestAppVersionIndex;
+        this.catalogVersion = catalogVersion;
+        this.objectMapper = objectMapper;
+        this.maxBulkItems = applicationProperties.getBulk().getMaxItems();
+        this.maxDeletedItems = applicationProperties.getBulk().getMaxDeletedItems();
     }
 
     /**
@@ -66,24 +119,142 @@ public class AppVersionResource {
         AppVersion result = appVersionService.save(appVersion);
         return ResponseEntity
             .created(new URI("/api/app-versions/" + result.getId()))
+            .eTag(versionETag(result))
             .headers(HeaderUtil.createEntityCreationAlert(applicationName, true, ENTITY_NAME, result.getId().toString()))
             .body(result);
     }
 
+    /**
+     * {@code POST  /app-versions/bulk} : Create new appVersions in bulk, from a JSON array.
+     *
+     * @param appVersions the appVersions to create.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the outcome of each appVersion,
+     * or with status {@code 400 (Bad Request)} if there are too many appVersions.
+     */
+    @PostMapping(value = "/app-versions/bulk", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<List<AppVersionBulkResult>> createAppVersions(@RequestBody List<AppVersion> appVersions) {
+        log.debug("REST request to save {} AppVersions", appVersions.size());
+        checkBulkSize(appVersions.size());
+        return ResponseEntity.ok(appVersionService.saveAll(appVersions));
+    }
+
+    /**
+     * {@code POST  /app-versions/bulk} : Create new appVersions in bulk, from newline-delimited JSON.
+     * <p>
+     * A line which is not a valid appVersion fails on its own, with the {@code invalid} error. Blank lines are skipped.
+     *
+     * @param body the appVersions to create, one per line.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the outcome of each appVersion,
+     * or with status {@code 400 (Bad Request)} if there are too many appVersions.
+     * @throws IOException if the body cannot be read.
+     */
+    @PostMapping(value = "/app-versions/bulk", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<List<AppVersionBulkResult>> createAppVersionsFromNdjson(InputStream body) throws IOException {
+        ObjectReader reader = objectMapper.readerFor(AppVersion.class);
+        List<AppVersion> appVersions = new ArrayList<>();
+        try (BufferedReader lines = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = lines.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                checkBulkSize(appVersions.size() + 1);
+                try {
+                    appVersions.add(reader.readValue(line));
+                } catch (JsonProcessingException e) {
+                    appVersions.add(null);
+                }
+            }
+        }
+        log.debug("REST request to save {} AppVersions", appVersions.size());
+        return ResponseEntity.ok(appVersionService.saveAll(appVersions));
+    }
+
+    /**
+     * {@code POST  /admin/app-versions/import} : Import new appVersions from semicolon separated values, with a header
+     * line naming the columns, as in the Liquibase fake data.
+     * <p>
+     * The body is read incrementally and loaded in a single transaction, through {@code COPY} on PostgreSQL, so that
+     * neither the memory used nor the time spent per row depend on the size of the catalog.
+     *
+     * @param body the appVersions to import.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the number of imported appVersions
+     * and the throughput of the import, or with status {@code 400 (Bad Request)} if any line is invalid, in which case
+     * nothing is imported.
+     * @throws IOException if the body cannot be read.
+     */
+    @PostMapping(value = "/admin/app-versions/import", consumes = "text/csv")
+    public ResponseEntity<AppVersionImportResult> importAppVersionsFromCsv(InputStream body) throws IOException {
+        log.debug("REST request to import AppVersions from CSV");
+        try (Reader reader = new InputStreamReader(body, StandardCharsets.UTF_8)) {
+            return importAppVersions(() -> AppVersionImportReader.csv(reader));
+        }
+    }
+
+    /**
+     * {@code POST  /admin/app-versions/import} : Import new appVersions from newline-delimited JSON.
+     *
+     * @param body the appVersions to import, one per line.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the number of imported appVersions
+     * and the throughput of the import, or with status {@code 400 (Bad Request)} if any line is invalid, in which case
+     * nothing is imported.
+     * @throws IOException if the body cannot be read.
+     */
+    @PostMapping(value = "/admin/app-versions/import", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<AppVersionImportResult> importAppVersionsFromNdjson(InputStream body) throws IOException {
+        log.debug("REST request to import AppVersions from NDJSON");
+        try (Reader reader = new InputStreamReader(body, StandardCharsets.UTF_8)) {
+            return importAppVersions(() -> AppVersionImportReader.ndjson(reader, objectMapper.readerFor(AppVersion.class)));
+        }
+    }
+
+    private ResponseEntity<AppVersionImportResult> importAppVersions(Supplier<AppVersionImportReader> appVersions) {
+        try {
+            return ResponseEntity.ok(appVersionService.importAll(appVersions.get()));
+        } catch (IllegalArgumentException e) {
+            throw importInvalid(e.getMessage());
+        } catch (InvalidDataAccessApiUsageException e) {
+            // the lines are parsed as the repository reads them, so their errors are translated like its own
+            throw importInvalid(e.getCause().getMessage());
+        } catch (DataIntegrityViolationException e) {
+            throw importInvalid(NestedExceptionUtils.getMostSpecificCause(e).getMessage());
+        }
+    }
+
+    private static BadRequestAlertException importInvalid(String message) {
+        return new BadRequestAlertException(message, ENTITY_NAME, "importinvalid");
+    }
+
+    private void checkBulkSize(int size) {
+        if (size > maxBulkItems) {
+            throw new BadRequestAlertException(
+                "At most " + maxBulkItems + " appVersions can be created at once",
+                ENTITY_NAME,
+                "bulktoolarge"
+            );
+        }
+    }
+
     /**
      * {@code PUT  /app-versions/:id} : Updates an existing appVersion.
+     * <p>
+     * The update is conditional on the version given by the {@code If-Match} header, or else by the appVersion itself.
      *
      * @param id the id of the appVersion to save.
      * @param appVersion the appVersion to update.
+     * @param ifMatch the ETag the appVersion must still have, if any.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated appVersion,
      * or with status {@code 400 (Bad Request)} if the appVersion is not valid,
+     * or with status {@code 409 (Conflict)} if the appVersion has another version than the given one,
+     * or with status {@code 412 (Precondition Failed)} if the appVersion does not match the {@code If-Match} header,
      * or with status {@code 500 (Internal Server Error)} if the appVersion couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PutMapping("/app-versions/{id}")
     public ResponseEntity<AppVersion> updateAppVersion(
         @PathVariable(value = "id", required = false) final UUID id,
-        @RequestBody AppVersion appVersion
+        @RequestBody AppVersion appVersion,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
     ) throws URISyntaxException {
         log.debug("REST request to update AppVersion : {}, {}", id, appVersion);
         if (appVersion.getId() == null) {
@@ -93,32 +264,75 @@ public class AppVersionResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        if (!appVersionRepository.existsById(id)) {
-            throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
-        }
-
-        AppVersion result = appVersionService.save(appVersion);
+        // a missing appVersion is reported by the update itself, without a prior existence check
+        AppVersion result = appVersionService
+            .update(appVersion, expectedVersion(ifMatch, appVersion))
+            .orElseThrow(() -> new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound"));
         return ResponseEntity
             .ok()
+            .eTag(versionETag(result))
             .headers(HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, appVersion.getId().toString()))
             .body(result);
     }
 
+    /**
+     * {@code PUT  /app-versions/by-version} : Create or update the appVersion with the given type, major, minor and patch.
+     * <p>
+     * The appVersion is upserted by a single statement, so a release pipeline needs neither to look it up first nor
+     * to retry when a concurrent pipeline creates it first. The id and version of the body are ignored.
+     *
+     * @param appVersion the appVersion to create or update.
+     * @return the {@link ResponseEntity} with status {@code 201 (Created)} and with body the new appVersion,
+     * or with status {@code 200 (OK)} and with body the updated appVersion,
+     * or with status {@code 400 (Bad Request)} if the type, major, minor or patch is missing.
+     * @throws URISyntaxException if the Location URI syntax is incorrect.
+     */
+    @PutMapping("/app-versions/by-version")
+    public ResponseEntity<AppVersion> upsertAppVersion(@RequestBody AppVersion appVersion) throws URISyntaxException {
+        log.debug("REST request to upsert AppVersion : {}", appVersion);
+        if (
+            appVersion.getType() == null || appVersion.getMajor() == null || appVersion.getMinor() == null || appVersion.getPatch() == null
+        ) {
+            throw new BadRequestAlertException("The type, major, minor and patch are required", ENTITY_NAME, "naturalkeynull");
+        }
+        AppVersion result = appVersionService.upsert(appVersion);
+        String id = result.getId().toString();
+        // every update increments the version
+        if (result.getVersion() == 0) {
+            return ResponseEntity
+                .created(new URI("/api/app-versions/" + id))
+                .eTag(versionETag(result))
+                .headers(HeaderUtil.createEntityCreationAlert(applicationName, true, ENTITY_NAME, id))
+                .body(result);
+        }
+        return ResponseEntity
+            .ok()
+            .eTag(versionETag(result))
+            .headers(HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, id))
+            .body(result);
+    }
+
     /**
      * {@code PATCH  /app-versions/:id} : Partial updates given fields of an existing appVersion, field will ignore if it is null
+     * <p>
+     * The update is conditional on the version given by the {@code If-Match} header, or else by the appVersion itself.
      *
      * @param id the id of the appVersion to save.
      * @param appVersion the appVersion to update.
+     * @param ifMatch the ETag the appVersion must still have, if any.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated appVersion,
      * or with status {@code 400 (Bad Request)} if the appVersion is not valid,
      * or with status {@code 404 (Not Found)} if the appVersion is not found,
+     * or with status {@code 409 (Conflict)} if the appVersion has another version than the given one,
+     * or with status {@code 412 (Precondition Failed)} if the appVersion does not match the {@code If-Match} header,
      * or with status {@code 500 (Internal Server Error)} if the appVersion couldn't be updated.
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PatchMapping(value = "/app-versions/{id}", consumes = { "application/json", "application/merge-patch+json" })
     public ResponseEntity<AppVersion> partialUpdateAppVersion(
         @PathVariable(value = "id", required = false) final UUID id,
-        @RequestBody AppVersion appVersion
+        @RequestBody AppVersion appVersion,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch
     ) throws URISyntaxException {
         log.debug("REST request to partial update AppVersion partially : {}, {}", id, appVersion);
         if (appVersion.getId() == null) {
@@ -128,54 +342,214 @@ public class AppVersionResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        if (!appVersionRepository.existsById(id)) {
-            throw new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound");
-        }
-
-        Optional<AppVersion> result = appVersionService.partialUpdate(appVersion);
-
-        return ResponseUtil.wrapOrNotFound(
-            result,
-            HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, appVersion.getId().toString())
-        );
+        // a missing appVersion is reported by the update itself, without a prior existence check
+        AppVersion result = appVersionService
+            .partialUpdate(appVersion, expectedVersion(ifMatch, appVersion))
+            .orElseThrow(() -> new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound"));
+        return ResponseEntity
+            .ok()
+            .eTag(versionETag(result))
+            .headers(HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, appVersion.getId().toString()))
+            .body(result);
     }
 
     /**
      * {@code GET  /app-versions} : get all the appVersions.
+     * <p>
+     * When a {@code size} or a {@code cursor} is given, the appVersions are paginated by keyset in
+     * (major, minor, patch, id) order: the {@code Link} header holds the URL of the next page, if any, with its opaque
+     * cursor. Unlike offset pagination, every page costs the same, however deep.
      *
      * @param criteria the criteria which the requested entities should match.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of appVersions in body.
+     * @param cursor the cursor of the requested page, taken from the {@code Link} header of the previous page.
+     * @param size the maximum number of appVersions of the requested page.
+     * @param request the current request, checked for a matching {@code If-None-Match} header.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of appVersions in body,
+     * or with status {@code 304 (Not Modified)} if the catalog has not changed since the given ETag.
      */
     @GetMapping("/app-versions")
-    public ResponseEntity<List<AppVersion>> getAllAppVersions(AppVersionCriteria criteria) {
-        log.debug("REST request to get AppVersions by criteria: {}", criteria);
-        List<AppVersion> entityList = appVersionQueryService.findByCriteria(criteria);
-        return ResponseEntity.ok().body(entityList);
+    public ResponseEntity<List<AppVersion>> getAllAppVersions(
+        AppVersionCriteria criteria,
+        @RequestParam(required = false) String cursor,
+        @RequestParam(required = false) Integer size,
+        WebRequest request
+    ) {
+        log.debug("REST request to get AppVersions by criteria: {}, cursor: {}, size: {}", criteria, cursor, size);
+        String eTag = catalogETag();
+        if (request.checkNotModified(eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+        }
+        if (cursor == null && size == null) {
+            List<AppVersion> entityList = appVersionQueryService.findByCriteria(criteria);
+            return ResponseEntity.ok().eTag(eTag).body(entityList);
+        }
+        int pageSize = size == null ? DEFAULT_PAGE_SIZE : size;
+        if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+            throw new BadRequestAlertException("Page size must be between 1 and " + MAX_PAGE_SIZE, ENTITY_NAME, "sizeinvalid");
+        }
+        AppVersion after;
+        try {
+            after = cursor == null ? null : AppVersionCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException("Invalid cursor", ENTITY_NAME, "cursorinvalid");
+        }
+        Slice<AppVersion> slice = appVersionQueryService.findByCriteriaAfter(criteria, after, pageSize);
+        HttpHeaders headers = new HttpHeaders();
+        if (slice.hasNext()) {
+            String next = ServletUriComponentsBuilder
+                .fromCurrentRequest()
+                .replaceQueryParam("cursor", AppVersionCursor.encode(slice.getContent().get(slice.getNumberOfElements() - 1)))
+                .replaceQueryParam("size", pageSize)
+                .toUriString();
+            headers.add(HttpHeaders.LINK, "<" + next + ">; rel=\"next\"");
+        }
+        return ResponseEntity.ok().eTag(eTag).headers(headers).body(slice.getContent());
+    }
+
+    /**
+     * {@code GET  /app-versions?fields=} : get some fields of all the appVersions.
+     * <p>
+     * Only the requested columns are selected, and no entity is hydrated. The fields are not paginated: they cannot be
+     * requested with a {@code cursor} or a {@code size}, since the keyset of the pages may not be among them.
+     *
+     * @param criteria the criteria which the requested entities should match.
+     * @param fields the comma-separated names of the fields to return.
+     * @param cursor must be absent.
+     * @param size must be absent.
+     * @param request the current request, checked for a matching {@code If-None-Match} header.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the requested fields of the appVersions in body,
+     * or with status {@code 304 (Not Modified)} if the catalog has not changed since the given ETag,
+     * or with status {@code 400 (Bad Request)} if a field is unknown, or if a cursor or a size is given.
+     */
+    @GetMapping(value = "/app-versions", params = { "fields", "stream!=true" })
+    public ResponseEntity<List<Map<String, Object>>> getAllAppVersionFields(
+        AppVersionCriteria criteria,
+        @RequestParam Set<String> fields,
+        @RequestParam(required = false) String cursor,
+        @RequestParam(required = false) Integer size,
+        WebRequest request
+    ) {
+        log.debug("REST request to get AppVersion fields {} by criteria: {}", fields, criteria);
+        if (fields.isEmpty()) {
+            throw new BadRequestAlertException("At least one field is required", ENTITY_NAME, "fieldsinvalid");
+        }
+        if (cursor != null || size != null) {
+            throw new BadRequestAlertException("Fields cannot be paginated", ENTITY_NAME, "fieldsunsupported");
+        }
+        String eTag = catalogETag();
+        if (request.checkNotModified(eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+        }
+        try {
+            return ResponseEntity.ok().eTag(eTag).body(appVersionQueryService.findFieldsByCriteria(criteria, fields));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException("Unknown field in " + fields, ENTITY_NAME, "fieldsinvalid");
+        }
+    }
+
+    /**
+     * {@code GET  /app-versions?stream=true} : stream all the appVersions.
+     * <p>
+     * The appVersions are read with a JDBC fetch size and written to the response one at a time, so that exports of
+     * the whole catalog run in constant memory. Whole appVersions are streamed: they cannot be restricted to some
+     * {@code fields}.
+     *
+     * @param criteria the criteria which the requested entities should match.
+     * @param fields must be absent.
+     * @param request the current request, checked for a matching {@code If-None-Match} header.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of appVersions in body,
+     * or with status {@code 304 (Not Modified)} if the catalog has not changed since the given ETag,
+     * or with status {@code 400 (Bad Request)} if fields are given.
+     */
+    @GetMapping(value = "/app-versions", params = "stream=true")
+    public ResponseEntity<StreamingResponseBody> streamAllAppVersions(
+        AppVersionCriteria criteria,
+        @RequestParam(required = false) Set<String> fields,
+        WebRequest request
+    ) {
+        log.debug("REST request to stream AppVersions by criteria: {}", criteria);
+        if (fields != null) {
+            throw new BadRequestAlertException("Fields cannot be streamed", ENTITY_NAME, "fieldsunsupported");
+        }
+        String eTag = catalogETag();
+        if (request.checkNotModified(eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+        }
+        StreamingResponseBody body = outputStream -> {
+            try (JsonGenerator generator = objectMapper.createGenerator(outputStream)) {
+                generator.writeStartArray();
+                appVersionQueryService.streamByCriteria(
+                    criteria,
+                    appVersion -> {
+                        try {
+                            generator.writeObject(appVersion);
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    }
+                );
+                generator.writeEndArray();
+            }
+        };
+        return ResponseEntity.ok().eTag(eTag).contentType(MediaType.APPLICATION_JSON).body(body);
     }
 
     /**
      * {@code GET  /app-versions/count} : count all the appVersions.
      *
      * @param criteria the criteria which the requested entities should match.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the count in body.
+     * @param request the current request, checked for a matching {@code If-None-Match} header.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the count in body,
+     * or with status {@code 304 (Not Modified)} if the catalog has not changed since the given ETag.
      */
     @GetMapping("/app-versions/count")
-    public ResponseEntity<Long> countAppVersions(AppVersionCriteria criteria) {
+    public ResponseEntity<Long> countAppVersions(AppVersionCriteria criteria, WebRequest request) {
         log.debug("REST request to count AppVersions by criteria: {}", criteria);
-        return ResponseEntity.ok().body(appVersionQueryService.countByCriteria(criteria));
+        String eTag = catalogETag();
+        if (request.checkNotModified(eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+        }
+        return ResponseEntity.ok().eTag(eTag).body(appVersionQueryService.countByCriteria(criteria));
+    }
+
+    /**
+     * {@code GET  /app-versions/latest} : get the latest appVersion of a type.
+     * <p>
+     * Served from the in-memory {@link LatestAppVersionIndex}, so update checks never hit the database.
+     *
+     * @param type the type of the appVersion.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the highest (major, minor, patch) appVersion of that type, or with status {@code 404 (Not Found)}.
+     */
+    @GetMapping("/app-versions/latest")
+    public ResponseEntity<AppVersion> getLatestAppVersion(@RequestParam AppVersionType type) {
+        log.debug("REST request to get latest AppVersion of type : {}", type);
+        return ResponseUtil.wrapOrNotFound(latestAppVersionIndex.getLatest(type));
     }
 
     /**
      * {@code GET  /app-versions/:id} : get the "id" appVersion.
+     * <p>
+     * An appVersion in the {@link AppVersionService#APP_VERSION_BY_ID_CACHE} cache is answered, including with
+     * {@code 304 (Not Modified)}, without any database access. Otherwise the appVersion is read once to compare its
+     * version with the {@code If-None-Match} header, which fills the cache for the next reads.
      *
      * @param id the id of the appVersion to retrieve.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the appVersion, or with status {@code 404 (Not Found)}.
+     * @param request the current request, checked for a matching {@code If-None-Match} header.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the appVersion, or with status {@code 404 (Not Found)},
+     * or with status {@code 304 (Not Modified)} if the appVersion has not changed since the given ETag.
      */
     @GetMapping("/app-versions/{id}")
-    public ResponseEntity<AppVersion> getAppVersion(@PathVariable UUID id) {
+    public ResponseEntity<AppVersion> getAppVersion(@PathVariable UUID id, WebRequest request) {
         log.debug("REST request to get AppVersion : {}", id);
-        Optional<AppVersion> appVersion = appVersionService.findOne(id);
-        return ResponseUtil.wrapOrNotFound(appVersion);
+        Optional<AppVersion> appVersion = appVersionService.findCachedOne(id).or(() -> appVersionService.findOne(id));
+        if (appVersion.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        String eTag = versionETag(appVersion.get());
+        if (request.checkNotModified(eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+        }
+        return ResponseEntity.ok().eTag(eTag).body(appVersion.get());
     }
 
     /**
@@ -193,4 +567,78 @@ public class AppVersionResource {
             .headers(HeaderUtil.createEntityDeletionAlert(applicationName, true, ENTITY_NAME, id.toString()))
             .build();
     }
+
+    /**
+     * {@code DELETE  /admin/app-versions?dryRun=:dryRun} : delete all the appVersions matching the criteria.
+     * <p>
+     * The appVersions are removed by a single set-based statement, without loading them. Criteria matching more than
+     * {@code application.bulk.max-deleted-items} appVersions are rejected as a whole.
+     *
+     * @param criteria the criteria which the appVersions to delete should match.
+     * @param dryRun whether to only count the matching appVersions.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the number of deleted appVersions,
+     * or of matching ones for a dry run, or with status {@code 400 (Bad Request)} if there are too many of them.
+     */
+    @DeleteMapping("/admin/app-versions")
+    public ResponseEntity<Long> deleteAppVersions(
+        AppVersionCriteria criteria,
+        @RequestParam(value = "dryRun", defaultValue = "false") boolean dryRun
+    ) {
+        log.debug("REST request to delete AppVersions by criteria: {}, dry run: {}", criteria, dryRun);
+        if (dryRun) {
+            return ResponseEntity.ok(appVersionQueryService.countByCriteria(criteria));
+        }
+        List<UUID> ids = appVersionService
+            .deleteByCriteria(criteria, maxDeletedItems)
+            .orElseThrow(
+                () ->
+                    new BadRequestAlertException(
+                        "At most " + maxDeletedItems + " appVersions can be deleted at once",
+                        ENTITY_NAME,
+                        "bulktoolarge"
+                    )
+            );
+        return ResponseEntity
+            .ok()
+            .headers(HeaderUtil.createAlert(applicationName, applicationName + "." + ENTITY_NAME + ".deleted", String.valueOf(ids.size())))
+            .body((long) ids.size());
+    }
+
+    /**
+     * Strong ETag of a single appVersion, its optimistic locking version.
+     */
+    private static String versionETag(AppVersion appVersion) {
+        return "\"" + appVersion.getVersion() + "\"";
+    }
+
+    /**
+     * The version an update expects, from the {@code If-Match} header or else from the body.
+     *
+     * @throws ObjectOptimisticLockingFailureException if the header cannot match any version.
+     */
+    private static Long expectedVersion(String ifMatch, AppVersion appVersion) {
+        if (ifMatch == null) {
+            return appVersion.getVersion();
+        }
+        if ("*".equals(ifMatch.trim())) {
+            return null;
+        }
+        try {
+            // a weak or malformed ETag never matches
+            return Long.valueOf(StringUtils.removeEnd(StringUtils.removeStart(ifMatch.trim(), "\""), "\""));
+        } catch (NumberFormatException e) {
+            throw new ObjectOptimisticLockingFailureException(AppVersion.class, appVersion.getId());
+        }
+    }
+
+    /**
+     * Strong ETag of every appVersion list read, derived from the in-memory {@link CatalogVersion}.
+     * <p>
+     * It must be computed before running the query, so that it never vouches for a newer catalog than the body. The
+     * {@code lastModifiedDate} of the appVersions cannot be used instead: it is a plain column, written by clients and
+     * not maintained on updates, so an unchanged value does not prove an unchanged row.
+     */
+    private String catalogETag() {
+        return "\"" + catalogVersion.getEpoch() + "-" + catalogVersion.get() + "\"";
+    }
 }
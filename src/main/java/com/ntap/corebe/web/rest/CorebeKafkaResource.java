@@ -1,22 +1,42 @@
 package com.ntap.corebe.web.rest;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.ntap.corebe.config.ApplicationProperties;
 import com.ntap.corebe.config.KafkaProperties;
+import com.ntap.corebe.service.KafkaFanOutHub;
+import com.ntap.corebe.web.rest.vm.KafkaRecordVM;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.Optional;
+import java.util.StringJoiner;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.stream.Collectors;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
-import org.apache.kafka.clients.consumer.ConsumerRecords;
-import org.apache.kafka.clients.consumer.KafkaConsumer;
 import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.Producer;
 import org.apache.kafka.clients.producer.ProducerRecord;
 import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.TopicPartition;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 @RestController
@@ -25,53 +45,348 @@ public class CorebeKafkaResource {
 
     private final Logger log = LoggerFactory.getLogger(CorebeKafkaResource.class);
 
-    private final KafkaProperties kafkaProperties;
-    private KafkaProducer<String, String> producer;
-    private ExecutorService sseExecutorService = Executors.newCachedThreadPool();
+    private final ObjectMapper objectMapper;
+    private final KafkaFanOutHub kafkaFanOutHub;
+    private final Producer<String, String> producer;
+    private final Semaphore inFlightPublishes;
+    private final int maxBatchSize;
+    private final int maxFrameRecords;
+    private final int maxFrameLength;
+    private final Duration heartbeatInterval;
 
-    public CorebeKafkaResource(KafkaProperties kafkaProperties) {
-        this.kafkaProperties = kafkaProperties;
-        this.producer = new KafkaProducer<>(kafkaProperties.getProducerProps());
+    @Autowired
+    public CorebeKafkaResource(
+        KafkaProperties kafkaProperties,
+        ApplicationProperties applicationProperties,
+        ObjectMapper objectMapper,
+        KafkaFanOutHub kafkaFanOutHub
+    ) {
+        this(applicationProperties, objectMapper, kafkaFanOutHub, new KafkaProducer<>(kafkaProperties.getProducerProps()));
     }
 
+    CorebeKafkaResource(
+        ApplicationProperties applicationProperties,
+        ObjectMapper objectMapper,
+        KafkaFanOutHub kafkaFanOutHub,
+        Producer<String, String> producer
+    ) {
+        this.objectMapper = objectMapper;
+        this.kafkaFanOutHub = kafkaFanOutHub;
+        this.producer = producer;
+        this.inFlightPublishes = new Semaphore(applicationProperties.getKafka().getMaxInFlightPublishes());
+        this.maxBatchSize = applicationProperties.getKafka().getMaxBatchSize();
+        this.maxFrameRecords = applicationProperties.getKafka().getMaxFrameRecords();
+        this.maxFrameLength = applicationProperties.getKafka().getMaxFrameLength();
+        this.heartbeatInterval = Duration.ofMillis(applicationProperties.getKafka().getHeartbeatIntervalMs());
+    }
+
+    /**
+     * {@code POST  /publish/:topic} : Publish a message to a Kafka topic.
+     * <p>
+     * The response is sent from the producer callback once the broker acknowledged the message, so that no request
+     * thread waits for the acknowledgement.
+     *
+     * @param topic the topic to publish to.
+     * @param message the message to publish.
+     * @param key the key of the message, if any.
+     * @return the {@link CompletableFuture} of the topic, partition, offset and timestamp of the published message, or
+     * with status {@code 503 (Service Unavailable)} if too many publishes are awaiting their acknowledgement.
+     */
     @PostMapping("/publish/{topic}")
-    public PublishResult publish(@PathVariable String topic, @RequestParam String message, @RequestParam(required = false) String key)
-        throws ExecutionException, InterruptedException {
+    public CompletableFuture<PublishResult> publish(
+        @PathVariable String topic,
+        @RequestParam String message,
+        @RequestParam(required = false) String key
+    ) {
         log.debug("REST request to send to Kafka topic {} with key {} the message : {}", topic, key, message);
-        RecordMetadata metadata = producer.send(new ProducerRecord<>(topic, key, message)).get();
-        return new PublishResult(metadata.topic(), metadata.partition(), metadata.offset(), Instant.ofEpochMilli(metadata.timestamp()));
+        if (!inFlightPublishes.tryAcquire()) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many publishes in flight");
+        }
+        CompletableFuture<PublishResult> result = new CompletableFuture<>();
+        try {
+            producer.send(
+                new ProducerRecord<>(topic, key, message),
+                (metadata, exception) -> {
+                    inFlightPublishes.release();
+                    if (exception != null) {
+                        result.completeExceptionally(exception);
+                    } else {
+                        result.complete(PublishResult.of(metadata));
+                    }
+                }
+            );
+        } catch (RuntimeException e) {
+            // the callback is not called when send fails synchronously
+            inFlightPublishes.release();
+            throw e;
+        }
+        return result;
+    }
+
+    /**
+     * {@code POST  /publish/:topic/batch} : Publish records to a Kafka topic, from a JSON array.
+     *
+     * @param topic the topic to publish to.
+     * @param records the records to publish.
+     * @return the {@link CompletableFuture} of the outcome of each record, see {@link #publishAll}.
+     */
+    @PostMapping(value = "/publish/{topic}/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public CompletableFuture<List<BatchPublishResult>> publishBatch(@PathVariable String topic, @RequestBody List<KafkaRecordVM> records) {
+        log.debug("REST request to send to Kafka topic {} {} records", topic, records.size());
+        checkBatchSize(records.size());
+        return publishAll(topic, records);
+    }
+
+    /**
+     * {@code POST  /publish/:topic/batch} : Publish records to a Kafka topic, from newline-delimited JSON.
+     * <p>
+     * Blank lines are skipped.
+     *
+     * @param topic the topic to publish to.
+     * @param body the records to publish, one per line.
+     * @return the {@link CompletableFuture} of the outcome of each record, see {@link #publishAll}, or with status
+     * {@code 400 (Bad Request)} if a line is not a valid record, in which case nothing is published.
+     * @throws IOException if the body cannot be read.
+     */
+    @PostMapping(value = "/publish/{topic}/batch", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public CompletableFuture<List<BatchPublishResult>> publishBatchFromNdjson(@PathVariable String topic, InputStream body)
+        throws IOException {
+        ObjectReader reader = objectMapper.readerFor(KafkaRecordVM.class);
+        List<KafkaRecordVM> records = new ArrayList<>();
+        try (BufferedReader lines = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = lines.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                checkBatchSize(records.size() + 1);
+                try {
+                    records.add(reader.readValue(line));
+                } catch (JsonProcessingException e) {
+                    throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid record: " + e.getOriginalMessage());
+                }
+            }
+        }
+        log.debug("REST request to send to Kafka topic {} {} records", topic, records.size());
+        return publishAll(topic, records);
     }
 
+    /**
+     * Send all the records without waiting in between, so that the producer batches them, and answer once all of them
+     * are acknowledged.
+     *
+     * @return the {@link CompletableFuture} of the partition and offset, or the error, of each record, in request order,
+     * with status {@code 400 (Bad Request)} if a record is null, in which case nothing is published, or with status
+     * {@code 503 (Service Unavailable)} if the records would exceed the publishes in flight.
+     */
+    private CompletableFuture<List<BatchPublishResult>> publishAll(String topic, List<KafkaRecordVM> records) {
+        int missing = records.indexOf(null);
+        if (missing >= 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Record " + missing + " is null");
+        }
+        if (!inFlightPublishes.tryAcquire(records.size())) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many publishes in flight");
+        }
+        List<CompletableFuture<BatchPublishResult>> results = new ArrayList<>(records.size());
+        for (int i = 0; i < records.size(); i++) {
+            int index = i;
+            CompletableFuture<BatchPublishResult> result = new CompletableFuture<>();
+            results.add(result);
+            try {
+                producer.send(
+                    new ProducerRecord<>(topic, records.get(index).getKey(), records.get(index).getValue()),
+                    (metadata, exception) -> {
+                        inFlightPublishes.release();
+                        result.complete(
+                            exception != null ? BatchPublishResult.failed(index, exception) : BatchPublishResult.published(index, metadata)
+                        );
+                    }
+                );
+            } catch (RuntimeException e) {
+                inFlightPublishes.release();
+                result.complete(BatchPublishResult.failed(index, e));
+            }
+        }
+        return CompletableFuture
+            .allOf(results.toArray(new CompletableFuture<?>[0]))
+            .thenApply(acknowledged -> results.stream().map(CompletableFuture::join).collect(Collectors.toList()));
+    }
+
+    private void checkBatchSize(int size) {
+        if (size > maxBatchSize) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "A batch cannot have more than " + maxBatchSize + " records");
+        }
+    }
+
+    /**
+     * {@code GET  /consume} : Stream the records of Kafka topics as server-sent events.
+     * <p>
+     * The records are polled by a consumer shared with the other clients of the same topics and consumer parameters,
+     * see {@link KafkaFanOutHub}. The id of each event holds the {@code topic-partition-offset} of the last record sent
+     * on every partition, comma-separated, so that a reconnecting client resumes after them from its
+     * {@code Last-Event-ID}: from the records the shared consumer still buffers, or else with a consumer assigned the
+     * partitions rather than joining the consumer group, until it catches up with the shared one.
+     *
+     * @param topics the topics to consume.
+     * @param batch whether the records of each poll are sent as {@code records} events holding JSON arrays of values,
+     * rather than one event per record.
+     * @param lastEventId the id of the last event received before reconnecting, if any.
+     * @param consumerParams the consumer properties overriding the {@code kafka.consumer} ones.
+     * @return the {@link SseEmitter} of the records published from now on or after the last event, with status
+     * {@code 400 (Bad Request)} if the last event id is invalid, or with status {@code 503 (Service Unavailable)} if
+     * too many streams are open.
+     */
     @GetMapping("/consume")
-    public SseEmitter consume(@RequestParam("topic") List<String> topics, @RequestParam Map<String, String> consumerParams) {
-        log.debug("REST request to consume records from Kafka topics {}", topics);
-        Map<String, Object> consumerProps = kafkaProperties.getConsumerProps();
-        consumerProps.putAll(consumerParams);
+    public SseEmitter consume(
+        @RequestParam("topic") List<String> topics,
+        @RequestParam(value = "batch", defaultValue = "false") boolean batch,
+        @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId,
+        @RequestParam Map<String, String> consumerParams
+    ) {
+        log.debug("REST request to consume records from Kafka topics {} after {}", topics, lastEventId);
+        Map<String, String> consumerProps = new HashMap<>(consumerParams);
         consumerProps.remove("topic");
+        consumerProps.remove("batch");
 
         SseEmitter emitter = new SseEmitter(0L);
-        sseExecutorService.execute(() -> {
-            KafkaConsumer<String, String> consumer = new KafkaConsumer<>(consumerProps);
-            emitter.onCompletion(consumer::close);
-            consumer.subscribe(topics);
-            boolean exitLoop = false;
-            while (!exitLoop) {
-                try {
-                    ConsumerRecords<String, String> records = consumer.poll(Duration.ofSeconds(5));
+        Optional<KafkaFanOutHub.Subscription> optionalSubscription;
+        if (lastEventId == null || lastEventId.isBlank()) {
+            SseSubscriber subscriber = new SseSubscriber(emitter, batch, maxFrameRecords, maxFrameLength, heartbeatInterval, Map.of());
+            optionalSubscription = kafkaFanOutHub.subscribe(topics, consumerProps, subscriber);
+        } else {
+            Map<TopicPartition, Long> lastOffsets = parseEventId(lastEventId);
+            lastOffsets.keySet().removeIf(partition -> !topics.contains(partition.topic()));
+            Map<TopicPartition, Long> nextOffsets = new HashMap<>();
+            lastOffsets.forEach((partition, offset) -> nextOffsets.put(partition, offset + 1));
+            SseSubscriber subscriber = new SseSubscriber(emitter, batch, maxFrameRecords, maxFrameLength, heartbeatInterval, lastOffsets);
+            optionalSubscription = kafkaFanOutHub.resume(topics, consumerProps, nextOffsets, subscriber);
+        }
+        KafkaFanOutHub.Subscription subscription = optionalSubscription
+            .orElseThrow(() -> new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Too many streams"));
+        emitter.onCompletion(subscription::close);
+        emitter.onTimeout(subscription::close);
+        emitter.onError(error -> subscription.close());
+        return emitter;
+    }
+
+    /**
+     * @param eventId comma-separated {@code topic-partition-offset}s.
+     * @return the offsets by partition.
+     */
+    static Map<TopicPartition, Long> parseEventId(String eventId) {
+        Map<TopicPartition, Long> offsets = new LinkedHashMap<>();
+        try {
+            for (String position : eventId.split(",")) {
+                int offsetStart = position.lastIndexOf('-');
+                int partitionStart = position.lastIndexOf('-', offsetStart - 1);
+                if (partitionStart <= 0) {
+                    throw new NumberFormatException(position);
+                }
+                TopicPartition partition = new TopicPartition(
+                    position.substring(0, partitionStart).trim(),
+                    Integer.parseInt(position.substring(partitionStart + 1, offsetStart))
+                );
+                offsets.put(partition, Long.parseLong(position.substring(offsetStart + 1).trim()));
+            }
+        } catch (NumberFormatException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid Last-Event-ID", e);
+        }
+        return offsets;
+    }
+
+    /**
+     * Sends the records delivered by the {@link KafkaFanOutHub} to an {@link SseEmitter}, and a heartbeat comment
+     * when nothing was sent for the heartbeat interval.
+     * <p>
+     * Each record is sent as its own event, or in batch mode each delivery is sent as {@code records} events holding
+     * a JSON array of values, split on the frame bounds. A delivery holds the records polled since the previous one,
+     * so frames never wait for more records. The events are identified by the offsets of the last records sent, see
+     * {@link #consume}.
+     */
+    static class SseSubscriber implements KafkaFanOutHub.Subscriber {
+
+        private final Logger log = LoggerFactory.getLogger(SseSubscriber.class);
+
+        private final SseEmitter emitter;
+        private final boolean batch;
+        private final int maxFrameRecords;
+        private final int maxFrameLength;
+        private final long heartbeatIntervalNanos;
+        private final Map<TopicPartition, Long> lastOffsets;
+        private long lastSentNanos = System.nanoTime();
+
+        SseSubscriber(
+            SseEmitter emitter,
+            boolean batch,
+            int maxFrameRecords,
+            int maxFrameLength,
+            Duration heartbeatInterval,
+            Map<TopicPartition, Long> lastOffsets
+        ) {
+            this.emitter = emitter;
+            this.batch = batch;
+            this.maxFrameRecords = maxFrameRecords;
+            this.maxFrameLength = maxFrameLength;
+            this.heartbeatIntervalNanos = heartbeatInterval.toNanos();
+            this.lastOffsets = new LinkedHashMap<>(lastOffsets);
+        }
+
+        @Override
+        public void onRecords(List<ConsumerRecord<String, String>> records) throws IOException {
+            long now = System.nanoTime();
+            if (!records.isEmpty()) {
+                if (batch) {
+                    sendFrames(records);
+                } else {
                     for (ConsumerRecord<String, String> record : records) {
-                        emitter.send(record.value());
+                        updateLastOffset(record);
+                        emitter.send(SseEmitter.event().id(eventId()).data(record.value()));
                     }
-                    emitter.send(SseEmitter.event().comment(""));
-                } catch (Exception ex) {
-                    log.trace("Complete with error {}", ex.getMessage(), ex);
-                    emitter.completeWithError(ex);
-                    exitLoop = true;
                 }
+                lastSentNanos = now;
+            } else if (now - lastSentNanos >= heartbeatIntervalNanos) {
+                emitter.send(SseEmitter.event().comment(""));
+                lastSentNanos = now;
             }
-            consumer.close();
-            emitter.complete();
-        });
-        return emitter;
+        }
+
+        private void sendFrames(List<ConsumerRecord<String, String>> records) throws IOException {
+            List<String> frame = new ArrayList<>(Math.min(records.size(), maxFrameRecords));
+            int frameLength = 0;
+            for (ConsumerRecord<String, String> record : records) {
+                String value = record.value();
+                int length = value == null ? 0 : value.length();
+                if (!frame.isEmpty() && (frame.size() == maxFrameRecords || frameLength + length > maxFrameLength)) {
+                    sendFrame(frame);
+                    frame = new ArrayList<>(maxFrameRecords);
+                    frameLength = 0;
+                }
+                updateLastOffset(record);
+                frame.add(value);
+                frameLength += length;
+            }
+            sendFrame(frame);
+        }
+
+        private void sendFrame(List<String> frame) throws IOException {
+            emitter.send(SseEmitter.event().id(eventId()).name("records").data(frame, MediaType.APPLICATION_JSON));
+        }
+
+        private void updateLastOffset(ConsumerRecord<String, String> record) {
+            lastOffsets.put(new TopicPartition(record.topic(), record.partition()), record.offset());
+        }
+
+        private String eventId() {
+            StringJoiner eventId = new StringJoiner(",");
+            lastOffsets.forEach((partition, offset) -> eventId.add(partition + "-" + offset));
+            return eventId.toString();
+        }
+
+        @Override
+        public void onError(Exception error) {
+            log.trace("Complete with error {}", error.getMessage(), error);
+            emitter.completeWithError(error);
+        }
     }
 
     private static class PublishResult {
@@ -87,5 +402,34 @@ public class CorebeKafkaResource {
             this.offset = offset;
             this.timestamp = timestamp;
         }
+
+        private static PublishResult of(RecordMetadata metadata) {
+            return new PublishResult(metadata.topic(), metadata.partition(), metadata.offset(), Instant.ofEpochMilli(metadata.timestamp()));
+        }
+    }
+
+    private static class BatchPublishResult {
+
+        public final int index;
+        public final Integer partition;
+        public final Long offset;
+        public final Instant timestamp;
+        public final String error;
+
+        private BatchPublishResult(int index, Integer partition, Long offset, Instant timestamp, String error) {
+            this.index = index;
+            this.partition = partition;
+            this.offset = offset;
+            this.timestamp = timestamp;
+            this.error = error;
+        }
+
+        private static BatchPublishResult published(int index, RecordMetadata metadata) {
+            return new BatchPublishResult(index, metadata.partition(), metadata.offset(), Instant.ofEpochMilli(metadata.timestamp()), null);
+        }
+
+        private static BatchPublishResult failed(int index, Exception exception) {
+            return new BatchPublishResult(index, null, null, null, exception.getMessage());
+        }
     }
 }
@@ -0,0 +1,48 @@
+package com.ntap.corebe.web.rest.vm;
+
+/**
+ * View Model of a Kafka record to publish.
+ */
+public class KafkaRecordVM {
+
+    private String key;
+
+    private String value;
+
+    public KafkaRecordVM() {
+        // Empty constructor needed for Jackson.
+    }
+
+    public KafkaRecordVM(String key, String value) {
+        this.key = key;
+        this.value = value;
+    }
+
+    /**
+     * @return the key of the record, or {@code null} to let the producer pick the partition.
+     */
+    public String getKey() {
+        return key;
+    }
+
+    public void setKey(String key) {
+        this.key = key;
+    }
+
+    public String getValue() {
+        return value;
+    }
+
+    public void setValue(String value) {
+        this.value = value;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "KafkaRecordVM{" +
+            "key='" + key + "'" +
+            ", value='" + value + "'" +
+            "}";
+    }
+}
@@ -0,0 +1,33 @@
+package com.ntap.corebe;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import org.junit.jupiter.api.extension.ConditionEvaluationResult;
+import org.junit.jupiter.api.extension.ExecutionCondition;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.testcontainers.DockerClientFactory;
+
+/**
+ * Composite annotation for integration tests of the Postgres specific behavior, run on a Testcontainers database with
+ * the {@code testcontainers} profile, and skipped when Docker is not available.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@IntegrationTest
+@ActiveProfiles("testcontainers")
+@ExtendWith(PostgresIntegrationTest.DockerAvailableCondition.class)
+public @interface PostgresIntegrationTest {
+    class DockerAvailableCondition implements ExecutionCondition {
+
+        @Override
+        public ConditionEvaluationResult evaluateExecutionCondition(ExtensionContext context) {
+            return DockerClientFactory.instance().isDockerAvailable()
+                ? ConditionEvaluationResult.enabled("Docker is available")
+                : ConditionEvaluationResult.disabled("Docker is not available");
+        }
+    }
+}
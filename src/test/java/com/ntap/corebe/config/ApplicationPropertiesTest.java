@@ -0,0 +1,33 @@
+package com.ntap.corebe.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.context.properties.bind.BindException;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.bind.validation.ValidationBindHandler;
+import org.springframework.boot.context.properties.source.MapConfigurationPropertySource;
+import org.springframework.validation.beanvalidation.LocalValidatorFactoryBean;
+
+/**
+ * Unit tests of the validation of {@link ApplicationProperties}.
+ */
+class ApplicationPropertiesTest {
+
+    @Test
+    void maxDeletedItemsIsBoundedByTheBindParametersOfPostgres() {
+        assertThat(bind(Map.of("application.bulk.max-deleted-items", "32000")).getBulk().getMaxDeletedItems()).isEqualTo(32_000);
+
+        assertThatThrownBy(() -> bind(Map.of("application.bulk.max-deleted-items", "40000"))).isInstanceOf(BindException.class);
+    }
+
+    private static ApplicationProperties bind(Map<String, String> properties) {
+        LocalValidatorFactoryBean validator = new LocalValidatorFactoryBean();
+        validator.afterPropertiesSet();
+        return new Binder(new MapConfigurationPropertySource(properties))
+            .bindOrCreate("application", Bindable.of(ApplicationProperties.class), new ValidationBindHandler(validator));
+    }
+}
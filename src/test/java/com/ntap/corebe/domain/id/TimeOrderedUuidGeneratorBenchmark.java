@@ -0,0 +1,82 @@
+package com.ntap.corebe.domain.id;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Benchmark of the insert throughput and primary key index size of {@link TimeOrderedUuidGenerator} ids, against
+ * random UUIDs.
+ * <p>
+ * Not run by the build. Run its {@code main} method with the test classpath, and optionally a PostgreSQL JDBC URL,
+ * user and password as arguments; by default, a PostgreSQL container is started with Testcontainers.
+ */
+public final class TimeOrderedUuidGeneratorBenchmark {
+
+    private static final int ROWS = 1_000_000;
+
+    private static final int BATCH_SIZE = 1_000;
+
+    private TimeOrderedUuidGeneratorBenchmark() {}
+
+    public static void main(String[] args) throws SQLException {
+        String url = args.length > 0 ? args[0] : "jdbc:tc:postgresql:13.4:///benchmark";
+        String user = args.length > 1 ? args[1] : "corebe";
+        String password = args.length > 2 ? args[2] : "";
+        try (Connection connection = DriverManager.getConnection(url, user, password)) {
+            connection.setAutoCommit(false);
+            TimeOrderedUuidGenerator timeOrdered = new TimeOrderedUuidGenerator();
+            run(connection, "random", UUID::randomUUID);
+            run(connection, "time_ordered", timeOrdered::next);
+            // twice, once warmed up
+            run(connection, "random", UUID::randomUUID);
+            run(connection, "time_ordered", timeOrdered::next);
+        }
+    }
+
+    private static void run(Connection connection, String name, Supplier<UUID> ids) throws SQLException {
+        String table = "uuid_benchmark_" + name;
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("drop table if exists " + table);
+            statement.execute("create table " + table + " (id uuid primary key, major integer, description varchar(255))");
+            connection.commit();
+        }
+
+        long start = System.nanoTime();
+        try (PreparedStatement insert = connection.prepareStatement("insert into " + table + " values (?, ?, ?)")) {
+            for (int row = 1; row <= ROWS; row++) {
+                insert.setObject(1, ids.get());
+                insert.setInt(2, row);
+                insert.setString(3, "benchmark");
+                insert.addBatch();
+                if (row % BATCH_SIZE == 0) {
+                    insert.executeBatch();
+                    connection.commit();
+                }
+            }
+        }
+        long elapsedMillis = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+
+        try (
+            Statement statement = connection.createStatement();
+            ResultSet indexSize = statement.executeQuery("select pg_relation_size('" + table + "_pkey')")
+        ) {
+            indexSize.next();
+            System.out.printf(
+                "%-12s %,d rows in %,d ms: %,d rows/s, primary key index %,d kB%n",
+                name,
+                ROWS,
+                elapsedMillis,
+                ROWS * 1_000L / elapsedMillis,
+                indexSize.getLong(1) / 1024
+            );
+            statement.execute("drop table " + table);
+            connection.commit();
+        }
+    }
+}
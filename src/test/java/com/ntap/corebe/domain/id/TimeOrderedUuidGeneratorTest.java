@@ -0,0 +1,54 @@
+package com.ntap.corebe.domain.id;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+class TimeOrderedUuidGeneratorTest {
+
+    private static final long NOW = 1_660_000_000_000L;
+
+    @Test
+    void generatesVersion7Uuids() {
+        UUID uuid = new TimeOrderedUuidGenerator(() -> NOW, new Random(), new AtomicLong()).next();
+
+        assertThat(uuid.version()).isEqualTo(7);
+        assertThat(uuid.variant()).isEqualTo(2);
+        assertThat(uuid.getMostSignificantBits() >>> 16).isEqualTo(NOW);
+    }
+
+    @Test
+    void generatesIncreasingUuidsWithinAMillisecond() {
+        TimeOrderedUuidGenerator generator = new TimeOrderedUuidGenerator(() -> NOW, new Random(), new AtomicLong());
+        List<String> uuids = new ArrayList<>();
+        // more than the 4096 values of the counter
+        for (int i = 0; i < 10_000; i++) {
+            uuids.add(generator.next().toString());
+        }
+
+        // the string order is the byte order of the database
+        assertThat(uuids).isSorted().doesNotHaveDuplicates();
+    }
+
+    @Test
+    void generatesIncreasingUuidsWhenTheClockGoesBackwards() {
+        long[] clock = { NOW };
+        TimeOrderedUuidGenerator generator = new TimeOrderedUuidGenerator(() -> clock[0], new Random(), new AtomicLong());
+
+        UUID first = generator.next();
+        clock[0] = NOW - 1_000;
+        UUID second = generator.next();
+
+        assertThat(second.toString()).isGreaterThan(first.toString());
+    }
+
+    @Test
+    void generatorsShareTheirOrder() {
+        assertThat(new TimeOrderedUuidGenerator().next().toString()).isLessThan(new TimeOrderedUuidGenerator().next().toString());
+    }
+}
@@ -0,0 +1,119 @@
+package com.ntap.corebe.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.startsWith;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.ntap.corebe.PostgresIntegrationTest;
+import com.ntap.corebe.security.AuthoritiesConstants;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+/**
+ * Integration tests of the imports of {@link AppVersionRepositoryWithImport}, which go through {@code COPY} on
+ * Postgres, in batches of 100 rows.
+ */
+@PostgresIntegrationTest
+@AutoConfigureMockMvc
+@WithMockUser(authorities = AuthoritiesConstants.ADMIN)
+@TestPropertySource(properties = "application.bulk.import-batch-size=100")
+class AppVersionImportPostgresIT {
+
+    private static final String ENTITY_API_URL = "/api/admin/app-versions/import";
+
+    private static final int MAJOR = 9;
+
+    private static final int MINOR = 4242;
+
+    private static final int ROWS = 250;
+
+    @Autowired
+    private MockMvc restAppVersionMockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update(
+            "delete from app_version_outbox_event where aggregate_id in (select id from app_version where major = ? and minor = ?)",
+            MAJOR,
+            MINOR
+        );
+        jdbcTemplate.update("delete from app_version where major = ? and minor = ?", MAJOR, MINOR);
+    }
+
+    @Test
+    void importSeveralBatches() throws Exception {
+        restAppVersionMockMvc
+            .perform(post(ENTITY_API_URL).contentType("text/csv").content(csv(lines(ROWS))))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.rows").value(ROWS));
+
+        assertThat(importedCount()).isEqualTo(ROWS);
+        assertThat(
+            jdbcTemplate.queryForObject(
+                "select description from app_version where major = ? and minor = ? and patch = ?",
+                String.class,
+                MAJOR,
+                MINOR,
+                ROWS - 1
+            )
+        )
+            .isEqualTo("Line \"" + (ROWS - 1) + "\"; quoted");
+    }
+
+    @Test
+    void importWithAnInvalidLineInALaterBatchIsRolledBack() throws Exception {
+        List<String> lines = lines(ROWS);
+        lines.set(230, ";" + MAJOR + ";" + MINOR + ";two hundred thirty;PORTABLE;");
+
+        restAppVersionMockMvc
+            .perform(post(ENTITY_API_URL).contentType("text/csv").content(csv(lines)))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.message").value("error.importinvalid"))
+            .andExpect(jsonPath("$.title").value(startsWith("Line 232: ")));
+
+        assertThat(importedCount()).isZero();
+    }
+
+    @Test
+    void importWithADuplicateRowInALaterBatchIsRolledBack() throws Exception {
+        List<String> lines = lines(ROWS);
+        // same natural key as the first line, copied by the third batch
+        lines.set(230, lines.get(0));
+
+        restAppVersionMockMvc
+            .perform(post(ENTITY_API_URL).contentType("text/csv").content(csv(lines)))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.message").value("error.importinvalid"));
+
+        assertThat(importedCount()).isZero();
+    }
+
+    private static List<String> lines(int count) {
+        List<String> lines = new ArrayList<>(count);
+        for (int patch = 0; patch < count; patch++) {
+            lines.add(";" + MAJOR + ";" + MINOR + ";" + patch + ";PORTABLE;\"Line \"\"" + patch + "\"\"; quoted\"");
+        }
+        return lines;
+    }
+
+    private static String csv(List<String> lines) {
+        return "id;major;minor;patch;type;description\n" + String.join("\n", lines);
+    }
+
+    private int importedCount() {
+        return jdbcTemplate.queryForObject("select count(*) from app_version where major = ? and minor = ?", Integer.class, MAJOR, MINOR);
+    }
+}
@@ -0,0 +1,103 @@
+package com.ntap.corebe.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.ntap.corebe.IntegrationTest;
+import com.ntap.corebe.domain.enumeration.AppVersionType;
+import com.ntap.corebe.service.AppVersionQueryService;
+import com.ntap.corebe.service.criteria.AppVersionCriteria;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.util.List;
+import javax.persistence.EntityManagerFactory;
+import org.apache.commons.lang3.StringUtils;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Integration tests checking that the queries {@link AppVersionQueryService} generates from the criteria are served by
+ * the indexes of the {@code app_version} table, by explaining the SQL they emit.
+ *
+ * @see AppVersionPostgresIndexesIT for the Postgres only indexes.
+ */
+@IntegrationTest
+class AppVersionIndexesIT {
+
+    @Autowired
+    private AppVersionQueryService appVersionQueryService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @BeforeEach
+    void evictQueryCaches() {
+        // a cached result would not run any query
+        cacheManager.getCache(AppVersionQueryService.APP_VERSION_QUERY_RESULTS_CACHE).clear();
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictQueryRegions();
+    }
+
+    @Test
+    void typeAndVersionRangeUseTheNaturalKeyIndex() {
+        AppVersionCriteria criteria = new AppVersionCriteria();
+        criteria.type().setEquals(AppVersionType.PORTABLE);
+        criteria.major().setGreaterThanOrEqual(1);
+        assertThat(plan(criteria, "PORTABLE")).contains("UX_APP_VERSION_NATURAL_KEY");
+
+        criteria.major().setGreaterThanOrEqual(null);
+        criteria.major().setEquals(1);
+        criteria.minor().setGreaterThanOrEqual(2);
+        assertThat(plan(criteria, "PORTABLE")).contains("UX_APP_VERSION_NATURAL_KEY");
+    }
+
+    @Test
+    void versionRangeUsesTheKeysetIndex() {
+        AppVersionCriteria criteria = new AppVersionCriteria();
+        criteria.major().setEquals(1);
+        criteria.minor().setGreaterThan(2);
+        assertThat(plan(criteria)).contains("IDX_APP_VERSION_KEYSET");
+
+        criteria = new AppVersionCriteria();
+        criteria.major().setGreaterThanOrEqual(1);
+        criteria.major().setLessThanOrEqual(3);
+        assertThat(plan(criteria)).contains("IDX_APP_VERSION_KEYSET");
+    }
+
+    @Test
+    void releaseDateRangeUsesTheReleaseDateIndex() {
+        ZonedDateTime releaseDate = ZonedDateTime.parse("2022-01-01T00:00:00Z");
+        AppVersionCriteria criteria = new AppVersionCriteria();
+        criteria.releaseDate().setGreaterThanOrEqual(releaseDate);
+        assertThat(plan(criteria, Timestamp.from(releaseDate.toInstant()))).contains("IDX_APP_VERSION_RELEASE_DATE");
+    }
+
+    @Test
+    void createdDateRangeUsesTheCreatedDateIndex() {
+        Instant createdDate = Instant.parse("2022-01-01T00:00:00Z");
+        AppVersionCriteria criteria = new AppVersionCriteria();
+        criteria.createdDate().setLessThan(createdDate);
+        assertThat(plan(criteria, Timestamp.from(createdDate))).contains("IDX_APP_VERSION_CREATED_DATE");
+    }
+
+    /**
+     * @param parameters the values of the parameters the query binds, in order.
+     * @return the plan of the query {@link AppVersionQueryService#findByCriteria} runs for the criteria.
+     */
+    private String plan(AppVersionCriteria criteria, Object... parameters) {
+        List<String> statements = RecordingStatementInspector.record(() -> appVersionQueryService.findByCriteria(criteria));
+        assertThat(statements).hasSize(1);
+        String sql = statements.get(0);
+        assertThat(StringUtils.countMatches(sql, '?')).as(sql).isEqualTo(parameters.length);
+        return jdbcTemplate.queryForObject("explain " + sql, String.class, parameters).toUpperCase();
+    }
+}
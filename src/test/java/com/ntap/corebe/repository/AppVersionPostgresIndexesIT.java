@@ -0,0 +1,93 @@
+package com.ntap.corebe.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.ntap.corebe.PostgresIntegrationTest;
+import com.ntap.corebe.domain.enumeration.AppVersionType;
+import com.ntap.corebe.service.AppVersionQueryService;
+import com.ntap.corebe.service.criteria.AppVersionCriteria;
+import java.util.List;
+import java.util.function.Supplier;
+import javax.persistence.EntityManagerFactory;
+import org.apache.commons.lang3.StringUtils;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Integration tests checking that the queries {@link AppVersionQueryService} generates are served by the Postgres
+ * only indexes of the {@code app_version} table, by explaining the SQL they emit.
+ * <p>
+ * The table being nearly empty, sequential scans are disabled so that the plans show the usable indexes.
+ */
+@PostgresIntegrationTest
+class AppVersionPostgresIndexesIT {
+
+    @Autowired
+    private AppVersionQueryService appVersionQueryService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @BeforeEach
+    void evictQueryCaches() {
+        // a cached result would not run any query
+        cacheManager.getCache(AppVersionQueryService.APP_VERSION_QUERY_RESULTS_CACHE).clear();
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictQueryRegions();
+    }
+
+    @Test
+    void versionRangeUsesTheVersionIndex() {
+        AppVersionCriteria criteria = new AppVersionCriteria();
+        criteria.major().setEquals(1);
+        criteria.minor().setGreaterThan(2);
+        assertThat(plan(() -> appVersionQueryService.findByCriteria(criteria))).contains("IDX_APP_VERSION_VERSION");
+    }
+
+    @Test
+    void typeAndVersionRangeUseAnIndexOnTheTypeAndVersion() {
+        AppVersionCriteria criteria = new AppVersionCriteria();
+        criteria.type().setEquals(AppVersionType.PORTABLE);
+        criteria.major().setGreaterThanOrEqual(1);
+        assertThat(plan(() -> appVersionQueryService.findByCriteria(criteria), "PORTABLE"))
+            .containsPattern("UX_APP_VERSION_NATURAL_KEY|IDX_APP_VERSION_TYPE_VERSION");
+    }
+
+    @Test
+    void keysetSlicesUseTheCoalescedKeysetIndex() {
+        AppVersionCriteria criteria = new AppVersionCriteria();
+        assertThat(plan(() -> appVersionQueryService.findByCriteriaAfter(criteria, null, 20), 21)).contains("IDX_APP_VERSION_KEYSET");
+    }
+
+    /**
+     * @param query the call of {@link AppVersionQueryService} running the query.
+     * @param parameters the values of the parameters the query binds, in order.
+     * @return the plan of the query.
+     */
+    private String plan(Supplier<?> query, Object... parameters) {
+        List<String> statements = RecordingStatementInspector.record(query::get);
+        assertThat(statements).hasSize(1);
+        String sql = statements.get(0);
+        assertThat(StringUtils.countMatches(sql, '?')).as(sql).isEqualTo(parameters.length);
+        return new TransactionTemplate(transactionManager)
+            .execute(status -> {
+                jdbcTemplate.execute("set local enable_seqscan = off");
+                return String.join("\n", jdbcTemplate.queryForList("explain " + sql, String.class, parameters));
+            })
+            .toUpperCase();
+    }
+}
@@ -0,0 +1,109 @@
+package com.ntap.corebe.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.ntap.corebe.PostgresIntegrationTest;
+import com.ntap.corebe.domain.AppVersion;
+import com.ntap.corebe.domain.enumeration.AppVersionType;
+import java.time.Instant;
+import javax.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Integration tests of the {@code ... RETURNING} statements of {@link AppVersionRepositoryWithUpdate}, which only
+ * run on Postgres.
+ */
+@PostgresIntegrationTest
+class AppVersionRepositoryPostgresIT {
+
+    private static final String DESCRIPTION = "AAAAAAAAAA";
+    private static final String UPDATED_DESCRIPTION = "BBBBBBBBBB";
+
+    @Autowired
+    private AppVersionRepository appVersionRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private TransactionTemplate transactionTemplate;
+
+    private Cache secondLevelCache;
+
+    private AppVersion appVersion;
+
+    @BeforeEach
+    void initTest() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        secondLevelCache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+        appVersion =
+            transactionTemplate.execute(status ->
+                appVersionRepository.saveAndFlush(
+                    new AppVersion()
+                        .major(1)
+                        .minor(2)
+                        .patch(3)
+                        .type(AppVersionType.PORTABLE)
+                        .description(DESCRIPTION)
+                        .createdBy("test")
+                        .createdDate(Instant.now())
+                )
+            );
+        secondLevelCache.evictEntityData(AppVersion.class, appVersion.getId());
+    }
+
+    @AfterEach
+    void cleanUp() {
+        transactionTemplate.executeWithoutResult(status -> appVersionRepository.deleteById(appVersion.getId()));
+    }
+
+    @Test
+    void rolledBackUpdatesDoNotReachTheSecondLevelCache() {
+        transactionTemplate.executeWithoutResult(status -> {
+            AppVersion updated = appVersionRepository.update(copy().description(UPDATED_DESCRIPTION), null).orElseThrow();
+            assertThat(updated.getDescription()).isEqualTo(UPDATED_DESCRIPTION);
+            assertThat(secondLevelCache.containsEntity(AppVersion.class, appVersion.getId())).isFalse();
+            status.setRollbackOnly();
+        });
+
+        assertThat(secondLevelCache.containsEntity(AppVersion.class, appVersion.getId())).isFalse();
+        assertThat(findDescription()).isEqualTo(DESCRIPTION);
+    }
+
+    @Test
+    void rolledBackUpsertsDoNotReachTheSecondLevelCache() {
+        transactionTemplate.executeWithoutResult(status -> {
+            AppVersion upserted = appVersionRepository.upsert(copy().description(UPDATED_DESCRIPTION));
+            assertThat(upserted.getId()).isEqualTo(appVersion.getId());
+            assertThat(secondLevelCache.containsEntity(AppVersion.class, appVersion.getId())).isFalse();
+            status.setRollbackOnly();
+        });
+
+        assertThat(secondLevelCache.containsEntity(AppVersion.class, appVersion.getId())).isFalse();
+        assertThat(findDescription()).isEqualTo(DESCRIPTION);
+    }
+
+    private AppVersion copy() {
+        return new AppVersion()
+            .id(appVersion.getId())
+            .major(appVersion.getMajor())
+            .minor(appVersion.getMinor())
+            .patch(appVersion.getPatch())
+            .type(appVersion.getType())
+            .createdBy(appVersion.getCreatedBy())
+            .createdDate(appVersion.getCreatedDate());
+    }
+
+    private String findDescription() {
+        return transactionTemplate.execute(status -> appVersionRepository.findById(appVersion.getId()).orElseThrow().getDescription());
+    }
+}
@@ -0,0 +1,38 @@
+package com.ntap.corebe.repository;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Records the SQL statements Hibernate prepares on the current thread while {@link #record recording}, set up as the
+ * {@code hibernate.session_factory.statement_inspector} of the tests.
+ */
+public class RecordingStatementInspector implements StatementInspector {
+
+    private static final ThreadLocal<List<String>> RECORDED_STATEMENTS = new ThreadLocal<>();
+
+    /**
+     * @param action the action to record the statements of.
+     * @return the SQL statements prepared by the action, in order.
+     */
+    public static List<String> record(Runnable action) {
+        List<String> statements = new ArrayList<>();
+        RECORDED_STATEMENTS.set(statements);
+        try {
+            action.run();
+        } finally {
+            RECORDED_STATEMENTS.remove();
+        }
+        return statements;
+    }
+
+    @Override
+    public String inspect(String sql) {
+        List<String> statements = RECORDED_STATEMENTS.get();
+        if (statements != null) {
+            statements.add(sql);
+        }
+        return sql;
+    }
+}
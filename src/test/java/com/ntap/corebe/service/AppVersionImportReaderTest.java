@@ -0,0 +1,78 @@
+package com.ntap.corebe.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.ntap.corebe.domain.AppVersion;
+import com.ntap.corebe.domain.enumeration.AppVersionType;
+import java.io.StringReader;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+
+class AppVersionImportReaderTest {
+
+    @Test
+    void readsTheLiquibaseCsvLayout() {
+        String csv = String.join(
+            "\n",
+            "id;major;minor;patch;release_date;description;location;type;created_by;created_date;last_modified_by;last_modified_date",
+            "04f126b4-d588-40f2-af61-db30111009d7;18559;63047;72654;2022-07-30T13:35:12;Regional;\"a;b \"\"c\"\"\";PORTABLE;Anguilla;" +
+            "2022-07-30T18:46:58;;2022-07-30T15:41:09+02:00",
+            "  ",
+            ";1;;;;;;INSTALLABLE;;;;"
+        );
+
+        List<AppVersion> appVersions = readAll(AppVersionImportReader.csv(new StringReader(csv)));
+
+        assertThat(appVersions).hasSize(2);
+        AppVersion first = appVersions.get(0);
+        assertThat(first.getId()).isEqualTo(UUID.fromString("04f126b4-d588-40f2-af61-db30111009d7"));
+        assertThat(first.getPatch()).isEqualTo(72654);
+        assertThat(first.getReleaseDate().toInstant()).isEqualTo(Instant.parse("2022-07-30T13:35:12Z"));
+        assertThat(first.getLocation()).isEqualTo("a;b \"c\"");
+        assertThat(first.getType()).isEqualTo(AppVersionType.PORTABLE);
+        assertThat(first.getLastModifiedBy()).isNull();
+        assertThat(first.getLastModifiedDate()).isEqualTo(Instant.parse("2022-07-30T13:41:09Z"));
+        // a missing id is generated
+        assertThat(appVersions.get(1).getId()).isNotNull();
+        assertThat(appVersions.get(1).getMinor()).isNull();
+    }
+
+    @Test
+    void readsNdjson() {
+        ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        String ndjson = "{\"major\":1,\"type\":\"PORTABLE\"}\n\n{\"major\":2}\n";
+
+        List<AppVersion> appVersions = readAll(
+            AppVersionImportReader.ndjson(new StringReader(ndjson), objectMapper.readerFor(AppVersion.class))
+        );
+
+        assertThat(appVersions).extracting(AppVersion::getMajor).containsExactly(1, 2);
+        assertThat(appVersions).extracting(AppVersion::getId).doesNotContainNull();
+    }
+
+    @Test
+    void reportsTheInvalidLine() {
+        AppVersionImportReader csv = AppVersionImportReader.csv(new StringReader("major;type\n1;PORTABLE\n\n1;2;3"));
+        assertThat(csv.next().getMajor()).isEqualTo(1);
+        assertThatThrownBy(csv::next).isInstanceOf(IllegalArgumentException.class).hasMessage("Line 4: expected 2 values but got 3");
+
+        assertThatThrownBy(() -> readAll(AppVersionImportReader.csv(new StringReader("type\nUNKNOWN"))))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageStartingWith("Line 2: ");
+        assertThatThrownBy(() -> AppVersionImportReader.csv(new StringReader("")))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessage("Line 1: missing header");
+    }
+
+    private static List<AppVersion> readAll(AppVersionImportReader reader) {
+        List<AppVersion> appVersions = new ArrayList<>();
+        reader.forEachRemaining(appVersions::add);
+        return appVersions;
+    }
+}
@@ -0,0 +1,144 @@
+package com.ntap.corebe.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ntap.corebe.IntegrationTest;
+import com.ntap.corebe.config.ApplicationProperties;
+import com.ntap.corebe.domain.AppVersion;
+import com.ntap.corebe.domain.AppVersionOutboxEvent;
+import com.ntap.corebe.domain.enumeration.AppVersionType;
+import com.ntap.corebe.repository.AppVersionOutboxEventRepository;
+import com.ntap.corebe.service.event.AppVersionChangeMessage;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import org.apache.kafka.clients.producer.MockProducer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.KafkaException;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Integration tests for {@link AppVersionOutbox} and {@link AppVersionOutboxRelay}.
+ * <p>
+ * Not transactional: the outbox is only written when a change is committed.
+ */
+@IntegrationTest
+class AppVersionOutboxIT {
+
+    @Autowired
+    private AppVersionService appVersionService;
+
+    @Autowired
+    private AppVersionOutboxEventRepository appVersionOutboxEventRepository;
+
+    @Autowired
+    private ApplicationProperties applicationProperties;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void changesAreRelayedInOrderOnceAcknowledged() throws Exception {
+        UUID id = appVersionService.save(new AppVersion().major(1).minor(1).patch(1).type(AppVersionType.PORTABLE)).getId();
+        appVersionService.partialUpdate(new AppVersion().id(id).minor(2), null);
+        appVersionService.delete(id);
+        List<Long> eventIds = outboxEventsOf(id).stream().map(AppVersionOutboxEvent::getId).collect(Collectors.toList());
+        try {
+            assertThat(eventIds).hasSize(3);
+
+            MockProducer<String, String> producer = new MockProducer<>(true, new StringSerializer(), new StringSerializer());
+            AppVersionOutboxRelay relay = new AppVersionOutboxRelay(
+                applicationProperties,
+                appVersionOutboxEventRepository,
+                transactionManager,
+                Runnable::run,
+                new SimpleMeterRegistry(),
+                producer
+            );
+
+            // Unacknowledged events stay in the outbox
+            producer.sendException = new KafkaException("Broker not available");
+            relay.requestDrain();
+            assertThat(appVersionOutboxEventRepository.findAllById(eventIds)).hasSize(3);
+
+            producer.sendException = null;
+            relay.requestDrain();
+            assertThat(appVersionOutboxEventRepository.findAllById(eventIds)).isEmpty();
+            List<AppVersionChangeMessage> messages = producer
+                .history()
+                .stream()
+                .filter(record -> id.toString().equals(record.key()))
+                .map(ProducerRecord::value)
+                .map(this::readMessage)
+                .collect(Collectors.toList());
+            assertThat(messages).extracting(AppVersionChangeMessage::isDeleted).containsExactly(false, false, true);
+            assertThat(messages.get(1).getAppVersion().getMinor()).isEqualTo(2);
+            assertThat(messages.get(1).getAppVersion().getVersion()).isEqualTo(1L);
+        } finally {
+            appVersionOutboxEventRepository.findAllById(eventIds).forEach(appVersionOutboxEventRepository::delete);
+        }
+    }
+
+    @Test
+    void rolledBackChangesAreNotWritten() {
+        UUID id = new TransactionTemplate(transactionManager)
+            .execute(
+                status -> {
+                    status.setRollbackOnly();
+                    return appVersionService.save(new AppVersion().major(1).type(AppVersionType.INSTALLABLE)).getId();
+                }
+            );
+
+        assertThat(outboxEventsOf(id)).isEmpty();
+    }
+
+    @Test
+    void everyImportedAppVersionIsWritten() {
+        List<AppVersion> appVersions = List.of(
+            new AppVersion().id(UUID.randomUUID()).major(7).minor(0).patch(1).type(AppVersionType.PORTABLE),
+            new AppVersion().id(UUID.randomUUID()).major(7).minor(0).patch(2).type(AppVersionType.PORTABLE),
+            new AppVersion().id(UUID.randomUUID()).major(7).minor(0).patch(3).type(AppVersionType.INSTALLABLE)
+        );
+        appVersionService.importAll(appVersions.iterator());
+        try {
+            for (AppVersion appVersion : appVersions) {
+                assertThat(outboxEventsOf(appVersion.getId()))
+                    .singleElement()
+                    .extracting(event -> readMessage(event.getPayload()).getAppVersion().getPatch())
+                    .isEqualTo(appVersion.getPatch());
+            }
+        } finally {
+            for (AppVersion appVersion : appVersions) {
+                outboxEventsOf(appVersion.getId()).forEach(appVersionOutboxEventRepository::delete);
+                appVersionService.delete(appVersion.getId());
+                outboxEventsOf(appVersion.getId()).forEach(appVersionOutboxEventRepository::delete);
+            }
+        }
+    }
+
+    private List<AppVersionOutboxEvent> outboxEventsOf(UUID id) {
+        return appVersionOutboxEventRepository
+            .findAll(Sort.by("id"))
+            .stream()
+            .filter(event -> id.equals(event.getAggregateId()))
+            .collect(Collectors.toList());
+    }
+
+    private AppVersionChangeMessage readMessage(String value) {
+        try {
+            return objectMapper.readValue(value, AppVersionChangeMessage.class);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.ntap.corebe.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.ntap.corebe.PostgresIntegrationTest;
+import com.ntap.corebe.domain.AppVersion;
+import com.ntap.corebe.domain.AppVersionOutboxEvent;
+import com.ntap.corebe.domain.enumeration.AppVersionType;
+import com.ntap.corebe.repository.AppVersionOutboxEventRepository;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+/**
+ * Integration tests of the outbox rows of the imports, which go through {@code COPY} on Postgres.
+ */
+@PostgresIntegrationTest
+@TestPropertySource(properties = "application.bulk.import-batch-size=100")
+class AppVersionOutboxPostgresIT {
+
+    private static final int IMPORTED = 250;
+
+    @Autowired
+    private AppVersionService appVersionService;
+
+    @Autowired
+    private AppVersionOutboxEventRepository appVersionOutboxEventRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final List<AppVersion> appVersions = new ArrayList<>();
+
+    @AfterEach
+    void cleanUp() {
+        List<Object[]> ids = appVersions.stream().map(appVersion -> new Object[] { appVersion.getId() }).collect(Collectors.toList());
+        jdbcTemplate.batchUpdate("delete from app_version_outbox_event where aggregate_id = ?", ids);
+        jdbcTemplate.batchUpdate("delete from app_version where id = ?", ids);
+    }
+
+    @Test
+    void everyAppVersionImportedInSeveralBatchesIsWritten() {
+        for (int patch = 0; patch < IMPORTED; patch++) {
+            appVersions.add(new AppVersion().id(UUID.randomUUID()).major(8).minor(0).patch(patch).type(AppVersionType.PORTABLE));
+        }
+
+        assertThat(appVersionService.importAll(appVersions.iterator()).getRows()).isEqualTo(IMPORTED);
+
+        Set<UUID> ids = appVersions.stream().map(AppVersion::getId).collect(Collectors.toSet());
+        List<UUID> outboxIds = appVersionOutboxEventRepository
+            .findAll()
+            .stream()
+            .map(AppVersionOutboxEvent::getAggregateId)
+            .filter(ids::contains)
+            .collect(Collectors.toList());
+        assertThat(outboxIds).hasSize(IMPORTED).containsExactlyInAnyOrderElementsOf(ids);
+    }
+}
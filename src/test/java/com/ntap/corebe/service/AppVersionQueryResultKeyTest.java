@@ -0,0 +1,50 @@
+package com.ntap.corebe.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.ntap.corebe.service.criteria.AppVersionCriteria;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+
+class AppVersionQueryResultKeyTest {
+
+    @Test
+    void equivalentCriteriaShareAKey() {
+        AppVersionCriteria criteria1 = new AppVersionCriteria();
+        criteria1.major().setIn(List.of(2, 1, 2));
+        criteria1.description();
+        criteria1.setDistinct(false);
+        AppVersionCriteria criteria2 = new AppVersionCriteria();
+        criteria2.major().setIn(List.of(1, 2));
+
+        assertThat(AppVersionQueryResultKey.of("findAll", 1L, criteria1, null))
+            .isEqualTo(AppVersionQueryResultKey.of("findAll", 1L, criteria2, null))
+            .hasSameHashCodeAs(AppVersionQueryResultKey.of("findAll", 1L, criteria2, null));
+        assertThat(AppVersionQueryResultKey.of("findAll", 1L, new AppVersionCriteria(), null))
+            .isEqualTo(AppVersionQueryResultKey.of("findAll", 1L, null, null));
+    }
+
+    @Test
+    void differentQueriesDoNotShareAKey() {
+        AppVersionCriteria criteria = new AppVersionCriteria();
+        criteria.minor().setGreaterThan(1);
+
+        AppVersionQueryResultKey key = AppVersionQueryResultKey.of("findAll", 1L, criteria, null);
+        assertThat(key).isNotEqualTo(AppVersionQueryResultKey.of("count", 1L, criteria, null));
+        assertThat(key).isNotEqualTo(AppVersionQueryResultKey.of("findAll", 2L, criteria, null));
+        assertThat(key).isNotEqualTo(AppVersionQueryResultKey.of("findAll", 1L, new AppVersionCriteria(), null));
+        assertThat(AppVersionQueryResultKey.of("findPage", 1L, criteria, PageRequest.of(0, 20)))
+            .isNotEqualTo(AppVersionQueryResultKey.of("findPage", 1L, criteria, PageRequest.of(1, 20)));
+    }
+
+    @Test
+    void normalizeDoesNotModifyTheCriteria() {
+        AppVersionCriteria criteria = new AppVersionCriteria();
+        criteria.major().setIn(List.of(2, 1));
+
+        AppVersionQueryResultKey.normalize(criteria);
+
+        assertThat(criteria.getMajor().getIn()).containsExactly(2, 1);
+    }
+}
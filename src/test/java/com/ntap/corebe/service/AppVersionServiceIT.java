@@ -0,0 +1,288 @@
+package com.ntap.corebe.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.ntap.corebe.IntegrationTest;
+import com.ntap.corebe.domain.AppVersion;
+import com.ntap.corebe.domain.enumeration.AppVersionType;
+import com.ntap.corebe.repository.AppVersionRepository;
+import com.ntap.corebe.service.criteria.AppVersionCriteria;
+import com.ntap.corebe.service.event.AppVersionChangedEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import org.hibernate.Session;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Integration tests for {@link AppVersionService}.
+ * <p>
+ * Not transactional: the caches are only evicted once a change has been committed.
+ */
+@IntegrationTest
+class AppVersionServiceIT {
+
+    private static final String DEFAULT_DESCRIPTION = "AAAAAAAAAA";
+    private static final String UPDATED_DESCRIPTION = "BBBBBBBBBB";
+
+    @Autowired
+    private AppVersionService appVersionService;
+
+    @Autowired
+    private AppVersionQueryService appVersionQueryService;
+
+    @Autowired
+    private AppVersionRepository appVersionRepository;
+
+    @Autowired
+    private LatestAppVersionIndex latestAppVersionIndex;
+
+    @Autowired
+    private ApplicationEventPublisher applicationEventPublisher;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private AppVersionByIdCache appVersionByIdCache;
+
+    @Autowired
+    private CatalogVersion catalogVersion;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private AppVersion appVersion;
+
+    @BeforeEach
+    public void init() {
+        appVersion = new AppVersion().major(1).minor(1).patch(1).type(AppVersionType.PORTABLE).description(DEFAULT_DESCRIPTION);
+    }
+
+    @Test
+    void findOneIsCachedUntilTheAppVersionChanges() {
+        UUID id = appVersionService.save(appVersion).getId();
+        Cache cache = cacheManager.getCache(AppVersionService.APP_VERSION_BY_ID_CACHE);
+        assertThat(cache.get(id)).isNull();
+
+        assertThat(appVersionService.findOne(id)).map(AppVersion::getDescription).contains(DEFAULT_DESCRIPTION);
+        assertThat(cache.get(id)).isNotNull();
+
+        appVersionService.partialUpdate(new AppVersion().id(id).description(UPDATED_DESCRIPTION), null);
+        assertThat(cache.get(id)).isNull();
+        assertThat(appVersionService.findOne(id)).map(AppVersion::getDescription).contains(UPDATED_DESCRIPTION);
+
+        appVersionService.delete(id);
+        assertThat(cache.get(id)).isNull();
+        assertThat(appVersionService.findOne(id)).isEmpty();
+    }
+
+    @Test
+    void findOneDoesNotCacheAnAppVersionUpdatedWhileItWasLoaded() {
+        UUID id = appVersionService.save(appVersion).getId();
+
+        // the update is committed, and the cache evicted, between the load and the put of a read missing the cache
+        Optional<AppVersion> loaded = appVersionByIdCache.get(
+            id,
+            () -> {
+                Optional<AppVersion> beforeUpdate = appVersionRepository.findById(id);
+                appVersionService.partialUpdate(new AppVersion().id(id).description(UPDATED_DESCRIPTION), null);
+                return beforeUpdate;
+            }
+        );
+        assertThat(loaded).map(AppVersion::getVersion).contains(0L);
+        assertThat(appVersionService.findCachedOne(id)).isEmpty();
+
+        assertThat(appVersionService.findOne(id)).map(AppVersion::getVersion).contains(1L);
+        assertThat(appVersionService.findCachedOne(id)).map(AppVersion::getDescription).contains(UPDATED_DESCRIPTION);
+
+        appVersionService.delete(id);
+    }
+
+    @Test
+    void partialUpdateOnlyUpdatesTheGivenFields() {
+        UUID id = appVersionService.save(appVersion).getId();
+
+        assertThat(appVersionService.partialUpdate(new AppVersion().id(id).minor(2), null))
+            .hasValueSatisfying(updated -> {
+                assertThat(updated.getMajor()).isEqualTo(1);
+                assertThat(updated.getMinor()).isEqualTo(2);
+                assertThat(updated.getDescription()).isEqualTo(DEFAULT_DESCRIPTION);
+            });
+        assertThat(appVersionRepository.findById(id)).map(AppVersion::getMinor).contains(2);
+        assertThat(appVersionService.partialUpdate(new AppVersion().id(UUID.randomUUID()).minor(2), null)).isEmpty();
+
+        appVersionService.delete(id);
+    }
+
+    @Test
+    void updatesAreConditionalOnTheVersion() {
+        UUID id = appVersionService.save(appVersion).getId();
+        assertThat(appVersionRepository.findById(id)).map(AppVersion::getVersion).contains(0L);
+
+        AppVersion updated = appVersionService.update(new AppVersion().id(id).major(2), 0L).orElseThrow();
+        assertThat(updated.getVersion()).isEqualTo(1L);
+        assertThat(updated.getMinor()).isNull();
+        assertThatThrownBy(() -> appVersionService.partialUpdate(new AppVersion().id(id).minor(2), 0L))
+            .isInstanceOf(ObjectOptimisticLockingFailureException.class);
+        assertThat(appVersionService.partialUpdate(new AppVersion().id(id).minor(2), 1L)).map(AppVersion::getVersion).contains(2L);
+        assertThat(appVersionService.update(new AppVersion().id(UUID.randomUUID()), 0L)).isEmpty();
+
+        appVersionService.delete(id);
+    }
+
+    @Test
+    void partialUpdatesWithoutAnyFieldLeaveTheAppVersionUnchanged() {
+        UUID id = appVersionService.save(appVersion).getId();
+        long versionBeforeUpdates = catalogVersion.get();
+
+        assertThat(appVersionService.partialUpdate(new AppVersion().id(id), null)).map(AppVersion::getVersion).contains(0L);
+        assertThat(appVersionService.partialUpdate(new AppVersion().id(id), 0L))
+            .hasValueSatisfying(unchanged -> {
+                assertThat(unchanged.getVersion()).isZero();
+                assertThat(unchanged.getDescription()).isEqualTo(DEFAULT_DESCRIPTION);
+            });
+        assertThatThrownBy(() -> appVersionService.partialUpdate(new AppVersion().id(id), 1L))
+            .isInstanceOf(ObjectOptimisticLockingFailureException.class);
+        assertThat(appVersionService.partialUpdate(new AppVersion().id(UUID.randomUUID()), 0L)).isEmpty();
+        assertThat(appVersionRepository.findById(id)).map(AppVersion::getVersion).contains(0L);
+        assertThat(catalogVersion.get()).isEqualTo(versionBeforeUpdates);
+
+        appVersionService.delete(id);
+    }
+
+    @Test
+    void findOneCacheIsExportedAsMetrics() {
+        UUID id = appVersionService.save(appVersion).getId();
+        appVersionService.findOne(id);
+        appVersionService.findOne(id);
+
+        assertThat(meterRegistry.find("cache.gets").tag("cache", AppVersionService.APP_VERSION_BY_ID_CACHE).meters()).isNotEmpty();
+        assertThat(meterRegistry.find("cache.evictions").tag("cache", AppVersionService.APP_VERSION_BY_ID_CACHE).meters()).isNotEmpty();
+
+        appVersionService.delete(id);
+    }
+
+    @Test
+    void criteriaQueriesAreCachedAndInvalidatedByWrites() {
+        UUID id = appVersionService.save(appVersion).getId();
+        AppVersionCriteria criteria = new AppVersionCriteria();
+        criteria.id().setEquals(id);
+        criteria.description().setEquals(UPDATED_DESCRIPTION);
+
+        assertThat(appVersionQueryService.countByCriteria(criteria)).isZero();
+        assertThat(appVersionQueryService.findByCriteria(criteria)).isEmpty();
+
+        appVersionService.partialUpdate(new AppVersion().id(id).description(UPDATED_DESCRIPTION), null);
+        assertThat(appVersionQueryService.countByCriteria(criteria)).isEqualTo(1);
+        assertThat(appVersionQueryService.findByCriteria(criteria)).extracting(AppVersion::getId).containsExactly(id);
+        assertThat(entityManagerFactory.getCache().contains(AppVersion.class, id)).isTrue();
+
+        appVersionService.delete(id);
+        assertThat(appVersionQueryService.countByCriteria(criteria)).isZero();
+        assertThat(appVersionQueryService.findByCriteria(criteria)).isEmpty();
+    }
+
+    @Test
+    void criteriaResultsAreCachedUntilTheCatalogChanges() {
+        UUID id = appVersionService.save(appVersion).getId();
+        AppVersionCriteria criteria = new AppVersionCriteria();
+        criteria.id().setEquals(id);
+        Cache cache = cacheManager.getCache(AppVersionQueryService.APP_VERSION_QUERY_RESULTS_CACHE);
+        cache.clear();
+
+        assertThat(appVersionQueryService.findByCriteria(criteria))
+            .extracting(AppVersion::getDescription)
+            .containsExactly(DEFAULT_DESCRIPTION);
+        assertThat(appVersionQueryService.countByCriteria(criteria)).isEqualTo(1);
+        assertThat(cache.get(AppVersionQueryResultKey.of("findAll", catalogVersion.get(), criteria, null))).isNotNull();
+        assertThat(cache.get(AppVersionQueryResultKey.of("count", catalogVersion.get(), criteria, null))).isNotNull();
+
+        long versionBeforeUpdate = catalogVersion.get();
+        appVersionService.partialUpdate(new AppVersion().id(id).description(UPDATED_DESCRIPTION), null);
+        assertThat(catalogVersion.get()).isGreaterThan(versionBeforeUpdate);
+        assertThat(appVersionQueryService.findByCriteria(criteria))
+            .extracting(AppVersion::getDescription)
+            .containsExactly(UPDATED_DESCRIPTION);
+
+        appVersionService.delete(id);
+        assertThat(appVersionQueryService.countByCriteria(criteria)).isZero();
+    }
+
+    @Test
+    void criteriaQueriesAreStreamedDetached() {
+        UUID id = appVersionService.save(appVersion).getId();
+        UUID otherId = appVersionService.save(new AppVersion().major(2).description(DEFAULT_DESCRIPTION)).getId();
+        AppVersionCriteria criteria = new AppVersionCriteria();
+        criteria.id().setIn(List.of(id, otherId));
+
+        List<UUID> streamed = new ArrayList<>();
+        appVersionQueryService.streamByCriteria(
+            criteria,
+            streamedAppVersion -> {
+                assertThat(entityManager.contains(streamedAppVersion)).isFalse();
+                streamed.add(streamedAppVersion.getId());
+            }
+        );
+        assertThat(streamed).containsExactlyInAnyOrder(id, otherId);
+
+        appVersionService.delete(id);
+        appVersionService.delete(otherId);
+    }
+
+    @Test
+    void criteriaQueriesFindReadOnlyAppVersionsInReadWriteTransactions() {
+        UUID id = appVersionService.save(appVersion).getId();
+        AppVersionCriteria criteria = new AppVersionCriteria();
+        criteria.id().setEquals(id);
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            Session session = entityManager.unwrap(Session.class);
+            assertThat(appVersionQueryService.findByCriteria(criteria)).singleElement().matches(session::isReadOnly);
+            assertThat(appVersionQueryService.findByCriteriaAfter(criteria, null, 1)).singleElement().matches(session::isReadOnly);
+        });
+
+        appVersionService.delete(id);
+    }
+
+    @Test
+    void remoteChangesEvictTheLocalState() {
+        UUID id = appVersionService.save(appVersion.major(Integer.MAX_VALUE)).getId();
+        Cache cache = cacheManager.getCache(AppVersionService.APP_VERSION_BY_ID_CACHE);
+        appVersionService.findOne(id);
+        assertThat(cache.get(id)).isNotNull();
+        assertThat(latestAppVersionIndex.getLatest(AppVersionType.PORTABLE)).map(AppVersion::getId).contains(id);
+
+        // Simulate a change committed by another instance
+        appVersionRepository.deleteById(id);
+        long versionBeforeChange = catalogVersion.get();
+        applicationEventPublisher.publishEvent(AppVersionChangedEvent.remote(id, null, true));
+
+        assertThat(cache.get(id)).isNull();
+        assertThat(catalogVersion.get()).isGreaterThan(versionBeforeChange);
+        assertThat(latestAppVersionIndex.getLatest(AppVersionType.PORTABLE)).map(AppVersion::getId).isNotEqualTo(Optional.of(id));
+        assertThat(appVersionService.findOne(id)).isEmpty();
+    }
+}
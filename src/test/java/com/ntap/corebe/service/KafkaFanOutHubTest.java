@@ -0,0 +1,373 @@
+package com.ntap.corebe.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.ntap.corebe.config.ApplicationProperties;
+import com.ntap.corebe.config.KafkaProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.MockConsumer;
+import org.apache.kafka.clients.consumer.OffsetResetStrategy;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests of {@link KafkaFanOutHub}, polling {@link MockConsumer}s.
+ */
+class KafkaFanOutHubTest {
+
+    private static final TopicPartition PARTITION = new TopicPartition("topic-consume", 0);
+
+    private final List<MockConsumer<String, String>> consumers = new CopyOnWriteArrayList<>();
+
+    private ApplicationProperties applicationProperties;
+
+    private MeterRegistry meterRegistry;
+
+    private KafkaFanOutHub kafkaFanOutHub;
+
+    /** When set, holds the consumers closing on their own thread, as their polling thread stays busy meanwhile. */
+    private volatile CountDownLatch closing;
+
+    /** The number of records the consumers outside of the group find in the partition, from offset 0. */
+    private volatile int partitionRecords;
+
+    @BeforeEach
+    void setup() {
+        applicationProperties = new ApplicationProperties();
+        applicationProperties.getKafka().setMaxStreams(4);
+        applicationProperties.getKafka().setMaxQueuedRecords(2);
+        meterRegistry = new SimpleMeterRegistry();
+        KafkaProperties kafkaProperties = new KafkaProperties();
+        kafkaProperties.setConsumer(Map.of(ConsumerConfig.GROUP_ID_CONFIG, "corebe"));
+        kafkaFanOutHub =
+            new KafkaFanOutHub(
+                kafkaProperties,
+                applicationProperties,
+                meterRegistry,
+                consumerProps -> {
+                    MockConsumer<String, String> consumer = new MockConsumer<>(OffsetResetStrategy.EARLIEST) {
+                        @Override
+                        public synchronized void close() {
+                            if (closing != null && Thread.currentThread().getName().startsWith("pool-")) {
+                                try {
+                                    closing.await();
+                                } catch (InterruptedException e) {
+                                    Thread.currentThread().interrupt();
+                                }
+                            }
+                            super.close();
+                        }
+                    };
+                    if (consumerProps.containsKey(ConsumerConfig.GROUP_ID_CONFIG)) {
+                        consumer.schedulePollTask(() -> {
+                            consumer.rebalance(List.of(PARTITION));
+                            consumer.updateBeginningOffsets(Map.of(PARTITION, 0L));
+                        });
+                    } else {
+                        // consumers outside of the group are assigned the partitions themselves
+                        consumer.updatePartitions(PARTITION.topic(), List.of(new PartitionInfo(PARTITION.topic(), 0, null, null, null)));
+                        consumer.updateBeginningOffsets(Map.of(PARTITION, 0L));
+                        addRecords(consumer, partitionRecords);
+                    }
+                    consumers.add(consumer);
+                    return consumer;
+                }
+            );
+    }
+
+    @AfterEach
+    void stop() {
+        kafkaFanOutHub.stop();
+    }
+
+    @Test
+    void subscribersOfTheSameTopicsShareOneConsumer() throws Exception {
+        RecordingSubscriber first = new RecordingSubscriber();
+        RecordingSubscriber second = new RecordingSubscriber();
+        KafkaFanOutHub.Subscription firstSubscription = subscribe(List.of("topic-consume"), Map.of(), first);
+        KafkaFanOutHub.Subscription secondSubscription = subscribe(List.of("topic-consume"), Map.of(), second);
+        assertThat(consumers).hasSize(1);
+        assertThat(kafkaFanOutHub.getSharedConsumerCount()).isEqualTo(1);
+
+        MockConsumer<String, String> consumer = consumers.get(0);
+        addRecords(consumer, 1);
+
+        assertThat(first.values.poll(5, TimeUnit.SECONDS)).isEqualTo("value-0");
+        assertThat(second.values.poll(5, TimeUnit.SECONDS)).isEqualTo("value-0");
+
+        // the consumer is closed with its last subscription
+        firstSubscription.close();
+        assertThat(consumer.closed()).isFalse();
+        secondSubscription.close();
+        awaitClosed(consumer);
+        assertThat(kafkaFanOutHub.getSharedConsumerCount()).isZero();
+    }
+
+    @Test
+    void subscribersOfOtherTopicsOrPropertiesHaveTheirOwnConsumer() {
+        subscribe(List.of("topic-consume"), Map.of(), new RecordingSubscriber());
+        subscribe(List.of("topic-consume", "other-topic"), Map.of(), new RecordingSubscriber());
+        subscribe(List.of("topic-consume"), Map.of("group.id", "other-group"), new RecordingSubscriber());
+        subscribe(List.of("other-topic", "topic-consume"), Map.of(), new RecordingSubscriber());
+
+        assertThat(consumers).hasSize(3);
+        assertThat(kafkaFanOutHub.getSharedConsumerCount()).isEqualTo(3);
+    }
+
+    @Test
+    void subscriptionsBeyondTheMaximumAreRejected() {
+        KafkaFanOutHub.Subscription first = subscribe(List.of("topic-consume"), Map.of(), new RecordingSubscriber());
+        for (int i = 1; i < applicationProperties.getKafka().getMaxStreams(); i++) {
+            subscribe(List.of("topic-consume"), Map.of(), new RecordingSubscriber());
+        }
+        assertThat(meterRegistry.get("kafka.fan.out.streams").gauge().value()).isEqualTo(4);
+
+        assertThat(subscribe(List.of("other-topic"), Map.of(), new RecordingSubscriber())).isNull();
+
+        first.close();
+        assertThat(subscribe(List.of("other-topic"), Map.of(), new RecordingSubscriber())).isNotNull();
+    }
+
+    @Test
+    void consumersRejectedForWantOfAThreadAreClosed() throws Exception {
+        closing = new CountDownLatch(1);
+        try {
+            // the threads of the consumers closed by their last subscriber are still closing them
+            for (int i = 0; i < applicationProperties.getKafka().getMaxStreams(); i++) {
+                subscribe(List.of("topic-" + i), Map.of(), new RecordingSubscriber()).close();
+            }
+
+            assertThat(subscribe(List.of("topic-consume"), Map.of(), new RecordingSubscriber())).isNull();
+            assertThat(consumers).hasSize(applicationProperties.getKafka().getMaxStreams() + 1);
+            assertThat(consumers.get(consumers.size() - 1).closed()).isTrue();
+            assertThat(kafkaFanOutHub.getActiveStreamCount()).isZero();
+        } finally {
+            closing.countDown();
+        }
+    }
+
+    @Test
+    void failingSubscribersAreClosed() throws Exception {
+        RecordingSubscriber failing = new RecordingSubscriber();
+        failing.failure = new IllegalStateException("Client gone");
+        subscribe(List.of("topic-consume"), Map.of(), failing);
+
+        assertThat(failing.errors.poll(5, TimeUnit.SECONDS)).isSameAs(failing.failure);
+        awaitClosed(consumers.get(0));
+        assertThat(kafkaFanOutHub.getActiveStreamCount()).isZero();
+    }
+
+    @Test
+    void slowSubscribersAreEvictedWithoutStallingTheOthers() throws Exception {
+        RecordingSubscriber slow = new RecordingSubscriber();
+        slow.blocked = new CountDownLatch(1);
+        RecordingSubscriber fast = new RecordingSubscriber();
+        subscribe(List.of("topic-consume"), Map.of(), slow);
+        subscribe(List.of("topic-consume"), Map.of(), fast);
+        MockConsumer<String, String> consumer = consumers.get(0);
+        try {
+            // one record per poll, so that only the slow subscriber ever falls more than 2 records behind
+            for (int i = 0; i < 3; i++) {
+                addRecords(consumer, i, 1);
+                assertThat(fast.values.poll(5, TimeUnit.SECONDS)).isEqualTo("value-" + i);
+            }
+            awaitEvictions(1);
+            assertThat(meterRegistry.get("kafka.fan.out.dropped.records").counter().count()).isEqualTo(3);
+            assertThat(kafkaFanOutHub.getActiveStreamCount()).isEqualTo(1);
+        } finally {
+            slow.blocked.countDown();
+        }
+        assertThat(slow.errors.poll(5, TimeUnit.SECONDS)).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void evictingABlockedSubscriberNeitherWaitsForItNorStallsTheOthers() throws Exception {
+        RecordingSubscriber blocked = new RecordingSubscriber();
+        blocked.blocked = new CountDownLatch(1);
+        RecordingSubscriber other = new RecordingSubscriber();
+        subscribe(List.of("topic-consume"), Map.of(), blocked);
+        subscribe(List.of("topic-consume"), Map.of(), other);
+        MockConsumer<String, String> consumer = consumers.get(0);
+        try {
+            for (int i = 0; i < 3; i++) {
+                addRecords(consumer, i, 1);
+                assertThat(other.values.poll(5, TimeUnit.SECONDS)).isEqualTo("value-" + i);
+            }
+            awaitEvictions(1);
+
+            // the consumer keeps polling for the other subscriber, while the evicted one is still in onRecords
+            addRecords(consumer, 3, 2);
+            assertThat(other.values.poll(5, TimeUnit.SECONDS)).isEqualTo("value-3");
+            assertThat(other.values.poll(5, TimeUnit.SECONDS)).isEqualTo("value-4");
+            assertThat(blocked.errors).isEmpty();
+            assertThat(consumer.closed()).isFalse();
+        } finally {
+            blocked.blocked.countDown();
+        }
+        // the evicted subscriber is told once it returns
+        assertThat(blocked.errors.poll(5, TimeUnit.SECONDS)).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void resumedSubscribersHaveTheirOwnConsumerOutsideOfTheGroupUntilTheyCatchUp() throws Exception {
+        partitionRecords = 5;
+        RecordingSubscriber resumed = new RecordingSubscriber();
+        KafkaFanOutHub.Subscription subscription = kafkaFanOutHub
+            .resume(List.of("topic-consume"), Map.of(), Map.of(PARTITION, 3L), resumed)
+            .orElseThrow();
+        MockConsumer<String, String> ownConsumer = consumers.get(0);
+
+        assertThat(resumed.values.poll(5, TimeUnit.SECONDS)).isEqualTo("value-3");
+        assertThat(resumed.values.poll(5, TimeUnit.SECONDS)).isEqualTo("value-4");
+        assertThat(ownConsumer.assignment()).containsExactly(PARTITION);
+        assertThat(ownConsumer.subscription()).isEmpty();
+
+        // having caught up, the subscriber moves to a shared consumer, skipping the records it was handed already
+        awaitClosed(ownConsumer);
+        assertThat(consumers).hasSize(2);
+        assertThat(kafkaFanOutHub.getSharedConsumerCount()).isEqualTo(1);
+        assertThat(kafkaFanOutHub.getActiveStreamCount()).isEqualTo(1);
+        MockConsumer<String, String> sharedConsumer = consumers.get(1);
+        addRecords(sharedConsumer, 4, 2);
+        assertThat(resumed.values.poll(5, TimeUnit.SECONDS)).isEqualTo("value-5");
+        assertThat(resumed.values).isEmpty();
+
+        subscription.close();
+        awaitClosed(sharedConsumer);
+        assertThat(kafkaFanOutHub.getSharedConsumerCount()).isZero();
+        assertThat(kafkaFanOutHub.getActiveStreamCount()).isZero();
+    }
+
+    @Test
+    void resumedSubscribersReadTheRecordsTheSharedConsumerStillBuffers() throws Exception {
+        RecordingSubscriber live = new RecordingSubscriber();
+        subscribe(List.of("topic-consume"), Map.of(), live);
+        MockConsumer<String, String> sharedConsumer = consumers.get(0);
+        for (int i = 0; i < 5; i++) {
+            addRecords(sharedConsumer, i, 1);
+            assertThat(live.values.poll(5, TimeUnit.SECONDS)).isEqualTo("value-" + i);
+        }
+
+        RecordingSubscriber resumed = new RecordingSubscriber();
+        kafkaFanOutHub.resume(List.of("topic-consume"), Map.of(), Map.of(PARTITION, 3L), resumed).orElseThrow();
+
+        assertThat(resumed.values.poll(5, TimeUnit.SECONDS)).isEqualTo("value-3");
+        assertThat(resumed.values.poll(5, TimeUnit.SECONDS)).isEqualTo("value-4");
+        addRecords(sharedConsumer, 5, 1);
+        assertThat(resumed.values.poll(5, TimeUnit.SECONDS)).isEqualTo("value-5");
+        assertThat(live.values.poll(5, TimeUnit.SECONDS)).isEqualTo("value-5");
+        assertThat(consumers).hasSize(1);
+        assertThat(kafkaFanOutHub.getActiveStreamCount()).isEqualTo(2);
+    }
+
+    @Test
+    void resumedSubscribersTooFarBehindJoinTheSharedConsumerOnceTheyCatchUp() throws Exception {
+        RecordingSubscriber live = new RecordingSubscriber();
+        subscribe(List.of("topic-consume"), Map.of(), live);
+        MockConsumer<String, String> sharedConsumer = consumers.get(0);
+        for (int i = 0; i < 5; i++) {
+            addRecords(sharedConsumer, i, 1);
+            assertThat(live.values.poll(5, TimeUnit.SECONDS)).isEqualTo("value-" + i);
+        }
+
+        // more than 2 records behind the shared consumer
+        partitionRecords = 5;
+        RecordingSubscriber resumed = new RecordingSubscriber();
+        kafkaFanOutHub.resume(List.of("topic-consume"), Map.of(), Map.of(PARTITION, 1L), resumed).orElseThrow();
+        assertThat(consumers).hasSize(2);
+        MockConsumer<String, String> ownConsumer = consumers.get(1);
+        for (int i = 1; i < 5; i++) {
+            assertThat(resumed.values.poll(5, TimeUnit.SECONDS)).isEqualTo("value-" + i);
+        }
+
+        awaitClosed(ownConsumer);
+        assertThat(kafkaFanOutHub.getSharedConsumerCount()).isEqualTo(1);
+        addRecords(sharedConsumer, 5, 1);
+        assertThat(resumed.values.poll(5, TimeUnit.SECONDS)).isEqualTo("value-5");
+        assertThat(live.values.poll(5, TimeUnit.SECONDS)).isEqualTo("value-5");
+        assertThat(resumed.values).isEmpty();
+        assertThat(kafkaFanOutHub.getActiveStreamCount()).isEqualTo(2);
+    }
+
+    private KafkaFanOutHub.Subscription subscribe(List<String> topics, Map<String, String> consumerParams, RecordingSubscriber subscriber) {
+        return kafkaFanOutHub.subscribe(topics, consumerParams, subscriber).orElse(null);
+    }
+
+    private static void addRecords(MockConsumer<String, String> consumer, int count) {
+        addRecords(consumer, 0, count);
+    }
+
+    private static void addRecords(MockConsumer<String, String> consumer, int offset, int count) {
+        if (count == 0) {
+            return;
+        }
+        consumer.schedulePollTask(() -> {
+            for (int i = offset; i < offset + count; i++) {
+                consumer.addRecord(new ConsumerRecord<>(PARTITION.topic(), PARTITION.partition(), i, "key", "value-" + i));
+            }
+        });
+    }
+
+    private void awaitEvictions(int count) throws InterruptedException {
+        Counter evictedStreams = meterRegistry.get("kafka.fan.out.evicted.streams").counter();
+        for (int i = 0; i < 100 && evictedStreams.count() < count; i++) {
+            Thread.sleep(50);
+        }
+        assertThat(evictedStreams.count()).isEqualTo(count);
+    }
+
+    private static void awaitClosed(MockConsumer<String, String> consumer) throws InterruptedException {
+        for (int i = 0; i < 100 && !consumer.closed(); i++) {
+            Thread.sleep(50);
+        }
+        assertThat(consumer.closed()).isTrue();
+    }
+
+    /**
+     * Handles its records and errors under the same lock, as {@code SseEmitter} does.
+     */
+    private static class RecordingSubscriber implements KafkaFanOutHub.Subscriber {
+
+        private final BlockingQueue<String> values = new LinkedBlockingQueue<>();
+
+        private final BlockingQueue<Exception> errors = new LinkedBlockingQueue<>();
+
+        private RuntimeException failure;
+
+        private CountDownLatch blocked;
+
+        @Override
+        public synchronized void onRecords(List<ConsumerRecord<String, String>> records) {
+            if (failure != null) {
+                throw failure;
+            }
+            if (blocked != null) {
+                try {
+                    blocked.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            records.forEach(record -> values.add(record.value()));
+        }
+
+        @Override
+        public synchronized void onError(Exception error) {
+            errors.add(error);
+        }
+    }
+}
@@ -3,29 +3,46 @@ package com.ntap.corebe.web.rest;
 import static com.ntap.corebe.web.rest.TestUtil.sameInstant;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.startsWith;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
+import com.jayway.jsonpath.JsonPath;
 import com.ntap.corebe.IntegrationTest;
 import com.ntap.corebe.domain.AppVersion;
 import com.ntap.corebe.domain.enumeration.AppVersionType;
 import com.ntap.corebe.repository.AppVersionRepository;
+import com.ntap.corebe.security.AuthoritiesConstants;
+import com.ntap.corebe.service.AppVersionService;
+import com.ntap.corebe.service.CatalogVersion;
+import com.ntap.corebe.service.LatestAppVersionIndex;
 import com.ntap.corebe.service.criteria.AppVersionCriteria;
+import com.ntap.corebe.service.event.AppVersionChangedEvent;
 import java.time.Instant;
 import java.time.ZoneId;
 import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
+import java.util.stream.Collectors;
 import javax.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.transaction.annotation.Transactional;
 
 /**
@@ -79,9 +96,18 @@ class AppVersionResourceIT {
     @Autowired
     private AppVersionRepository appVersionRepository;
 
+    @Autowired
+    private LatestAppVersionIndex latestAppVersionIndex;
+
+    @Autowired
+    private CatalogVersion catalogVersion;
+
     @Autowired
     private EntityManager em;
 
+    @Autowired
+    private CacheManager cacheManager;
+
     @Autowired
     private MockMvc restAppVersionMockMvc;
 
@@ -180,6 +206,76 @@ class AppVersionResourceIT {
         assertThat(appVersionList).hasSize(databaseSizeBeforeCreate);
     }
 
+    @Test
+    void createAppVersionsInBulk() throws Exception {
+        // Not transactional: the appVersions are saved in their own transactions, one per chunk
+        List<AppVersion> appVersions = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            appVersions.add(createEntity(em).patch(i));
+        }
+        appVersions.add(createEntity(em).id(UUID.randomUUID()));
+        Statistics statistics = em.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+
+        MvcResult result;
+        try {
+            result = restAppVersionMockMvc
+                .perform(
+                    post(ENTITY_API_URL + "/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(TestUtil.convertObjectToJsonBytes(appVersions))
+                )
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(101))
+                .andExpect(jsonPath("$.[0].index").value(0))
+                .andExpect(jsonPath("$.[99].error").doesNotExist())
+                .andExpect(jsonPath("$.[100].id").doesNotExist())
+                .andExpect(jsonPath("$.[100].error").value("idexists"))
+                .andReturn();
+        } finally {
+            statistics.setStatisticsEnabled(false);
+        }
+        List<String> ids = JsonPath.read(result.getResponse().getContentAsString(), "$[0:100].id");
+        try {
+            // Validate the AppVersions in the database, inserted in JDBC batches
+            assertThat(appVersionRepository.findAllById(ids.stream().map(UUID::fromString).collect(Collectors.toList()))).hasSize(100);
+            assertThat(statistics.getPrepareStatementCount()).isBetween(1L, 10L);
+        } finally {
+            ids.forEach(id -> appVersionRepository.deleteById(UUID.fromString(id)));
+        }
+    }
+
+    @Test
+    void createAppVersionsInBulkFromNdjson() throws Exception {
+        // Not transactional: the appVersions are saved in their own transactions, one per chunk
+        String tooLongDescription = "A".repeat(256);
+        String ndjson = String.join(
+            "\n",
+            new String(TestUtil.convertObjectToJsonBytes(createEntity(em))),
+            "{not json",
+            "",
+            new String(TestUtil.convertObjectToJsonBytes(createEntity(em).description(tooLongDescription))),
+            new String(TestUtil.convertObjectToJsonBytes(createEntity(em).major(UPDATED_MAJOR)))
+        );
+
+        MvcResult result = restAppVersionMockMvc
+            .perform(post(ENTITY_API_URL + "/bulk").contentType(MediaType.APPLICATION_NDJSON).content(ndjson))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(4))
+            .andExpect(jsonPath("$.[1].error").value("invalid"))
+            .andExpect(jsonPath("$.[2].error").value("dataaccess"))
+            .andReturn();
+        List<String> ids = JsonPath.read(result.getResponse().getContentAsString(), "$[0,3].id");
+        try {
+            // The failing items do not prevent the others from being saved
+            assertThat(appVersionRepository.findById(UUID.fromString(ids.get(0)))).map(AppVersion::getMajor).contains(DEFAULT_MAJOR);
+            assertThat(appVersionRepository.findById(UUID.fromString(ids.get(1)))).map(AppVersion::getMajor).contains(UPDATED_MAJOR);
+        } finally {
+            ids.forEach(id -> appVersionRepository.deleteById(UUID.fromString(id)));
+        }
+    }
+
     @Test
     @Transactional
     void getAllAppVersions() throws Exception {
@@ -1181,6 +1277,371 @@ class AppVersionResourceIT {
         restAppVersionMockMvc.perform(get(ENTITY_API_URL_ID, UUID.randomUUID().toString())).andExpect(status().isNotFound());
     }
 
+    @Test
+    @Transactional
+    void getLatestAppVersion() throws Exception {
+        // Initialize the database
+        appVersionRepository.saveAndFlush(appVersion);
+        AppVersion newerAppVersion = createEntity(em).minor(UPDATED_MINOR);
+        appVersionRepository.saveAndFlush(newerAppVersion);
+        appVersionRepository.saveAndFlush(createEntity(em).major(SMALLER_MAJOR).minor(UPDATED_MINOR).patch(UPDATED_PATCH));
+        latestAppVersionIndex.rebuild();
+
+        // Get the latest appVersion of the default type
+        restAppVersionMockMvc
+            .perform(get(ENTITY_API_URL + "/latest?type=" + DEFAULT_TYPE))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(jsonPath("$.id").value(newerAppVersion.getId().toString()))
+            .andExpect(jsonPath("$.major").value(DEFAULT_MAJOR))
+            .andExpect(jsonPath("$.minor").value(UPDATED_MINOR))
+            .andExpect(jsonPath("$.patch").value(DEFAULT_PATCH));
+
+        // No appVersion of the updated type
+        restAppVersionMockMvc.perform(get(ENTITY_API_URL + "/latest?type=" + UPDATED_TYPE)).andExpect(status().isNotFound());
+    }
+
+    @Test
+    @Transactional
+    void getLatestAppVersionAfterChanges() throws Exception {
+        latestAppVersionIndex.rebuild();
+
+        // A newer appVersion is indexed as soon as it is created
+        AppVersion newerAppVersion = createEntity(em).major(UPDATED_MAJOR);
+        latestAppVersionIndex.onAppVersionChanged(AppVersionChangedEvent.saved(appVersionRepository.saveAndFlush(appVersion)));
+        latestAppVersionIndex.onAppVersionChanged(AppVersionChangedEvent.saved(appVersionRepository.saveAndFlush(newerAppVersion)));
+        assertThat(latestAppVersionIndex.getLatest(DEFAULT_TYPE)).map(AppVersion::getId).contains(newerAppVersion.getId());
+
+        // Deleting the latest appVersion falls back to the previous one
+        appVersionRepository.delete(newerAppVersion);
+        appVersionRepository.flush();
+        latestAppVersionIndex.onAppVersionChanged(AppVersionChangedEvent.deleted(newerAppVersion.getId()));
+        assertThat(latestAppVersionIndex.getLatest(DEFAULT_TYPE)).map(AppVersion::getId).contains(appVersion.getId());
+    }
+
+    @Test
+    @Transactional
+    void getAppVersionWithMatchingETag() throws Exception {
+        // Initialize the database
+        appVersionRepository.saveAndFlush(appVersion);
+
+        // The ETag of a list applies to every list read until the catalog changes
+        String eTag = restAppVersionMockMvc
+            .perform(get(ENTITY_API_URL + "?id.equals=" + appVersion.getId()))
+            .andExpect(status().isOk())
+            .andExpect(header().exists(HttpHeaders.ETAG))
+            .andReturn()
+            .getResponse()
+            .getHeader(HttpHeaders.ETAG);
+        restAppVersionMockMvc
+            .perform(get(ENTITY_API_URL + "?id.equals=" + appVersion.getId()).header(HttpHeaders.IF_NONE_MATCH, eTag))
+            .andExpect(status().isNotModified())
+            .andExpect(header().string(HttpHeaders.ETAG, eTag))
+            .andExpect(content().string(""));
+        restAppVersionMockMvc
+            .perform(get(ENTITY_API_URL + "/count?id.equals=" + appVersion.getId()).header(HttpHeaders.IF_NONE_MATCH, eTag))
+            .andExpect(status().isNotModified());
+
+        // Simulate a committed change
+        catalogVersion.onAppVersionChanged(AppVersionChangedEvent.deleted(UUID.randomUUID()));
+
+        restAppVersionMockMvc
+            .perform(get(ENTITY_API_URL + "?id.equals=" + appVersion.getId()).header(HttpHeaders.IF_NONE_MATCH, eTag))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.ETAG, not(eTag)))
+            .andExpect(jsonPath("$.[0].id").value(appVersion.getId().toString()));
+
+        // The ETag of an appVersion is its version
+        restAppVersionMockMvc
+            .perform(get(ENTITY_API_URL_ID, appVersion.getId()).header(HttpHeaders.IF_NONE_MATCH, "\"0\""))
+            .andExpect(status().isNotModified())
+            .andExpect(header().string(HttpHeaders.ETAG, "\"0\""));
+    }
+
+    @Test
+    @Transactional
+    void getAppVersionWithMatchingETagQueriesTheDatabaseOnlyOnACacheMiss() throws Exception {
+        // Initialize the database
+        appVersionRepository.saveAndFlush(appVersion);
+        em.clear();
+        em.getEntityManagerFactory().getCache().evict(AppVersion.class, appVersion.getId());
+        Cache appVersionByIdCache = cacheManager.getCache(AppVersionService.APP_VERSION_BY_ID_CACHE);
+        appVersionByIdCache.evict(appVersion.getId());
+        Statistics statistics = em.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+
+        try {
+            // A cache miss reads the appVersion once
+            restAppVersionMockMvc
+                .perform(get(ENTITY_API_URL_ID, appVersion.getId()).header(HttpHeaders.IF_NONE_MATCH, "\"0\""))
+                .andExpect(status().isNotModified());
+            assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+
+            // A cached appVersion is answered without any query
+            statistics.clear();
+            restAppVersionMockMvc
+                .perform(get(ENTITY_API_URL_ID, appVersion.getId()).header(HttpHeaders.IF_NONE_MATCH, "\"0\""))
+                .andExpect(status().isNotModified());
+            assertThat(statistics.getPrepareStatementCount()).isZero();
+        } finally {
+            statistics.setStatisticsEnabled(false);
+            // The cached appVersion is rolled back with the test
+            appVersionByIdCache.evict(appVersion.getId());
+        }
+    }
+
+    @Test
+    @Transactional
+    void upsertAppVersionByVersion() throws Exception {
+        int databaseSizeBeforeUpsert = appVersionRepository.findAll().size();
+        appVersion.setMajor(UPDATED_MAJOR);
+
+        // The first upsert creates the AppVersion
+        String content = restAppVersionMockMvc
+            .perform(
+                put(ENTITY_API_URL + "/by-version")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(appVersion))
+            )
+            .andExpect(status().isCreated())
+            .andExpect(header().string(HttpHeaders.ETAG, "\"0\""))
+            .andExpect(jsonPath("$.version").value(0))
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+        String id = JsonPath.read(content, "$.id");
+
+        // The second upsert of the same type and version updates it
+        restAppVersionMockMvc
+            .perform(
+                put(ENTITY_API_URL + "/by-version")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(appVersion.description(UPDATED_DESCRIPTION)))
+            )
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.ETAG, "\"1\""))
+            .andExpect(jsonPath("$.id").value(id))
+            .andExpect(jsonPath("$.version").value(1))
+            .andExpect(jsonPath("$.description").value(UPDATED_DESCRIPTION));
+
+        List<AppVersion> appVersionList = appVersionRepository.findAll();
+        assertThat(appVersionList).hasSize(databaseSizeBeforeUpsert + 1);
+        AppVersion testAppVersion = appVersionRepository.findById(UUID.fromString(id)).orElseThrow();
+        assertThat(testAppVersion.getMajor()).isEqualTo(UPDATED_MAJOR);
+        assertThat(testAppVersion.getDescription()).isEqualTo(UPDATED_DESCRIPTION);
+    }
+
+    @Test
+    @Transactional
+    void upsertAppVersionWithoutTypeIsRejected() throws Exception {
+        int databaseSizeBeforeUpsert = appVersionRepository.findAll().size();
+        appVersion.setType(null);
+
+        restAppVersionMockMvc
+            .perform(
+                put(ENTITY_API_URL + "/by-version")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(appVersion))
+            )
+            .andExpect(status().isBadRequest());
+
+        assertThat(appVersionRepository.findAll()).hasSize(databaseSizeBeforeUpsert);
+    }
+
+    @Test
+    @Transactional
+    void patchAppVersionWithoutAnyField() throws Exception {
+        // Initialize the database
+        appVersionRepository.saveAndFlush(appVersion);
+        em.detach(appVersion);
+
+        restAppVersionMockMvc
+            .perform(
+                patch(ENTITY_API_URL_ID, appVersion.getId())
+                    .header(HttpHeaders.IF_MATCH, "\"1\"")
+                    .contentType("application/merge-patch+json")
+                    .content(TestUtil.convertObjectToJsonBytes(new AppVersion().id(appVersion.getId())))
+            )
+            .andExpect(status().isPreconditionFailed());
+
+        restAppVersionMockMvc
+            .perform(
+                patch(ENTITY_API_URL_ID, appVersion.getId())
+                    .header(HttpHeaders.IF_MATCH, "\"0\"")
+                    .contentType("application/merge-patch+json")
+                    .content(TestUtil.convertObjectToJsonBytes(new AppVersion().id(appVersion.getId())))
+            )
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.ETAG, "\"0\""))
+            .andExpect(jsonPath("$.version").value(0))
+            .andExpect(jsonPath("$.major").value(DEFAULT_MAJOR));
+
+        // The version is not bumped
+        assertThat(appVersionRepository.findById(appVersion.getId())).map(AppVersion::getVersion).contains(0L);
+    }
+
+    @Test
+    @Transactional
+    void updateAppVersionWithIfMatch() throws Exception {
+        // Initialize the database
+        appVersionRepository.saveAndFlush(appVersion);
+        em.detach(appVersion);
+        int databaseSizeBeforeUpdate = appVersionRepository.findAll().size();
+
+        // A stale ETag does not match
+        restAppVersionMockMvc
+            .perform(
+                patch(ENTITY_API_URL_ID, appVersion.getId())
+                    .header(HttpHeaders.IF_MATCH, "\"1\"")
+                    .contentType("application/merge-patch+json")
+                    .content(TestUtil.convertObjectToJsonBytes(new AppVersion().id(appVersion.getId()).major(UPDATED_MAJOR)))
+            )
+            .andExpect(status().isPreconditionFailed());
+
+        restAppVersionMockMvc
+            .perform(
+                patch(ENTITY_API_URL_ID, appVersion.getId())
+                    .header(HttpHeaders.IF_MATCH, "\"0\"")
+                    .contentType("application/merge-patch+json")
+                    .content(TestUtil.convertObjectToJsonBytes(new AppVersion().id(appVersion.getId()).major(UPDATED_MAJOR)))
+            )
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.ETAG, "\"1\""))
+            .andExpect(jsonPath("$.version").value(1));
+
+        // A stale version in the body conflicts
+        restAppVersionMockMvc
+            .perform(
+                put(ENTITY_API_URL_ID, appVersion.getId())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(appVersion.version(0L).minor(UPDATED_MINOR)))
+            )
+            .andExpect(status().isConflict());
+
+        // Validate the AppVersion in the database
+        List<AppVersion> appVersionList = appVersionRepository.findAll();
+        assertThat(appVersionList).hasSize(databaseSizeBeforeUpdate);
+        AppVersion testAppVersion = appVersionList.get(appVersionList.size() - 1);
+        assertThat(testAppVersion.getMajor()).isEqualTo(UPDATED_MAJOR);
+        assertThat(testAppVersion.getMinor()).isEqualTo(DEFAULT_MINOR);
+        assertThat(testAppVersion.getVersion()).isEqualTo(1L);
+    }
+
+    @Test
+    @Transactional
+    void getAllAppVersionsByKeyset() throws Exception {
+        // Initialize the database, with equal and null versions (equal versions are of different types)
+        String location = UUID.randomUUID().toString();
+        AppVersion unversioned = appVersionRepository.saveAndFlush(createEntity(em).major(null).location(location));
+        AppVersion smaller = appVersionRepository.saveAndFlush(createEntity(em).major(SMALLER_MAJOR).location(location));
+        AppVersion first = appVersionRepository.saveAndFlush(createEntity(em).location(location));
+        AppVersion second = appVersionRepository.saveAndFlush(createEntity(em).type(UPDATED_TYPE).location(location));
+        AppVersion updated = appVersionRepository.saveAndFlush(createEntity(em).major(UPDATED_MAJOR).location(location));
+        appVersionRepository.saveAndFlush(createEntity(em).major(UPDATED_MAJOR).type(UPDATED_TYPE).location(UPDATED_LOCATION));
+
+        // Walk the pages through the Link header
+        List<String> ids = new ArrayList<>();
+        String url = ENTITY_API_URL + "?size=2&location.equals=" + location;
+        while (url != null) {
+            MvcResult result = restAppVersionMockMvc
+                .perform(get(url))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(lessThanOrEqualTo(2)))
+                .andReturn();
+            ids.addAll(JsonPath.read(result.getResponse().getContentAsString(), "$[*].id"));
+            String link = result.getResponse().getHeader(HttpHeaders.LINK);
+            url = link == null ? null : link.substring(link.indexOf('<') + 1, link.indexOf('>'));
+        }
+
+        assertThat(ids).hasSize(5);
+        assertThat(ids.subList(0, 2)).containsExactly(unversioned.getId().toString(), smaller.getId().toString());
+        assertThat(ids.subList(2, 4)).containsExactlyInAnyOrder(first.getId().toString(), second.getId().toString());
+        assertThat(ids.get(4)).isEqualTo(updated.getId().toString());
+    }
+
+    @Test
+    void streamAllAppVersions() throws Exception {
+        // Not transactional: the response is streamed from another thread, which must see the appVersion
+        appVersionRepository.saveAndFlush(appVersion);
+        try {
+            MvcResult result = restAppVersionMockMvc
+                .perform(get(ENTITY_API_URL + "?stream=true&id.equals=" + appVersion.getId()))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+            restAppVersionMockMvc
+                .perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$.[0].id").value(appVersion.getId().toString()))
+                .andExpect(jsonPath("$.[0].major").value(DEFAULT_MAJOR))
+                .andExpect(jsonPath("$.[0].description").value(DEFAULT_DESCRIPTION));
+        } finally {
+            appVersionRepository.deleteById(appVersion.getId());
+        }
+    }
+
+    @Test
+    @Transactional
+    void getAllAppVersionFields() throws Exception {
+        // Initialize the database
+        appVersionRepository.saveAndFlush(appVersion);
+
+        restAppVersionMockMvc
+            .perform(get(ENTITY_API_URL + "?fields=id,major,type&id.equals=" + appVersion.getId()))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(jsonPath("$.length()").value(1))
+            .andExpect(jsonPath("$.[0].id").value(appVersion.getId().toString()))
+            .andExpect(jsonPath("$.[0].major").value(DEFAULT_MAJOR))
+            .andExpect(jsonPath("$.[0].type").value(DEFAULT_TYPE.toString()))
+            .andExpect(jsonPath("$.[0].minor").doesNotExist())
+            .andExpect(jsonPath("$.[0].description").doesNotExist());
+
+        restAppVersionMockMvc.perform(get(ENTITY_API_URL + "?fields=id,unknown")).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Transactional
+    void getAllAppVersionFieldsRoutedByTheValueOfStream() throws Exception {
+        // Initialize the database
+        appVersionRepository.saveAndFlush(appVersion);
+
+        restAppVersionMockMvc
+            .perform(get(ENTITY_API_URL + "?stream=false&fields=id&id.equals=" + appVersion.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[0].id").value(appVersion.getId().toString()))
+            .andExpect(jsonPath("$.[0].major").doesNotExist());
+
+        restAppVersionMockMvc
+            .perform(get(ENTITY_API_URL + "?stream=true&fields=id"))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.message").value("error.fieldsunsupported"));
+    }
+
+    @Test
+    @Transactional
+    void getAllAppVersionFieldsByKeysetIsRejected() throws Exception {
+        restAppVersionMockMvc
+            .perform(get(ENTITY_API_URL + "?fields=id,major&size=2"))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.message").value("error.fieldsunsupported"));
+
+        restAppVersionMockMvc
+            .perform(get(ENTITY_API_URL + "?fields=id,major&cursor=any"))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.message").value("error.fieldsunsupported"));
+    }
+
+    @Test
+    @Transactional
+    void getAllAppVersionsByKeysetWithInvalidParameters() throws Exception {
+        restAppVersionMockMvc.perform(get(ENTITY_API_URL + "?cursor=not-a-cursor")).andExpect(status().isBadRequest());
+        restAppVersionMockMvc.perform(get(ENTITY_API_URL + "?size=0")).andExpect(status().isBadRequest());
+    }
+
     @Test
     @Transactional
     void putNewAppVersion() throws Exception {
@@ -1451,4 +1912,116 @@ class AppVersionResourceIT {
         List<AppVersion> appVersionList = appVersionRepository.findAll();
         assertThat(appVersionList).hasSize(databaseSizeBeforeDelete - 1);
     }
+
+    @Test
+    @Transactional
+    @WithMockUser(authorities = AuthoritiesConstants.ADMIN)
+    void deleteAppVersionsByCriteria() throws Exception {
+        // Initialize the database
+        appVersionRepository.saveAndFlush(appVersion);
+        AppVersion otherAppVersion = appVersionRepository.saveAndFlush(createEntity(em).major(UPDATED_MAJOR));
+        em.clear();
+        String criteria = "?major.equals=" + DEFAULT_MAJOR + "&id.in=" + appVersion.getId() + "," + otherAppVersion.getId();
+
+        // A dry run only counts the appVersions
+        restAppVersionMockMvc
+            .perform(delete("/api/admin/app-versions" + criteria + "&dryRun=true"))
+            .andExpect(status().isOk())
+            .andExpect(content().string("1"));
+        assertThat(appVersionRepository.existsById(appVersion.getId())).isTrue();
+
+        restAppVersionMockMvc
+            .perform(delete("/api/admin/app-versions" + criteria))
+            .andExpect(status().isOk())
+            .andExpect(header().exists("X-corebeApp-alert"))
+            .andExpect(content().string("1"));
+
+        // Validate that only the matching appVersion has been deleted
+        assertThat(appVersionRepository.existsById(appVersion.getId())).isFalse();
+        assertThat(appVersionRepository.existsById(otherAppVersion.getId())).isTrue();
+    }
+
+    @Test
+    @Transactional
+    void deleteAppVersionsByCriteriaIsForAdminsOnly() throws Exception {
+        // Initialize the database
+        appVersionRepository.saveAndFlush(appVersion);
+
+        restAppVersionMockMvc.perform(delete("/api/admin/app-versions?id.equals=" + appVersion.getId())).andExpect(status().isForbidden());
+
+        assertThat(appVersionRepository.existsById(appVersion.getId())).isTrue();
+    }
+
+    @Test
+    @Transactional
+    @WithMockUser(authorities = AuthoritiesConstants.ADMIN)
+    void importAppVersionsFromCsv() throws Exception {
+        int databaseSizeBeforeImport = appVersionRepository.findAll().size();
+        UUID id = UUID.randomUUID();
+        String csv = String.join(
+            "\n",
+            "id;major;minor;patch;release_date;description;location;type;created_by;created_date;last_modified_by;last_modified_date",
+            id + ";3;2;1;2022-07-30T13:35:12;\"Semicolon; and \"\"quotes\"\"\";here;PORTABLE;admin;2022-07-30T18:46:58Z;;",
+            "",
+            ";4;0;0;;;;INSTALLABLE;;;;"
+        );
+
+        restAppVersionMockMvc
+            .perform(post("/api/admin/app-versions/import").contentType("text/csv").content(csv))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.rows").value(2))
+            .andExpect(jsonPath("$.rowsPerSecond").isNumber());
+
+        // Validate the imported AppVersions in the database
+        assertThat(appVersionRepository.findAll()).hasSize(databaseSizeBeforeImport + 2);
+        AppVersion testAppVersion = appVersionRepository.findById(id).orElseThrow();
+        assertThat(testAppVersion.getMajor()).isEqualTo(3);
+        assertThat(testAppVersion.getReleaseDate().toInstant()).isEqualTo(Instant.parse("2022-07-30T13:35:12Z"));
+        assertThat(testAppVersion.getDescription()).isEqualTo("Semicolon; and \"quotes\"");
+        assertThat(testAppVersion.getType()).isEqualTo(AppVersionType.PORTABLE);
+        assertThat(testAppVersion.getCreatedDate()).isEqualTo(Instant.parse("2022-07-30T18:46:58Z"));
+        assertThat(testAppVersion.getLastModifiedBy()).isNull();
+        assertThat(testAppVersion.getVersion()).isZero();
+    }
+
+    @Test
+    @Transactional
+    @WithMockUser(authorities = AuthoritiesConstants.ADMIN)
+    void importAppVersionsFromNdjson() throws Exception {
+        int databaseSizeBeforeImport = appVersionRepository.findAll().size();
+        String ndjson = String.join(
+            "\n",
+            new String(TestUtil.convertObjectToJsonBytes(createEntity(em))),
+            new String(TestUtil.convertObjectToJsonBytes(createEntity(em).major(UPDATED_MAJOR)))
+        );
+
+        restAppVersionMockMvc
+            .perform(post("/api/admin/app-versions/import").contentType(MediaType.APPLICATION_NDJSON).content(ndjson))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.rows").value(2));
+
+        assertThat(appVersionRepository.findAll()).hasSize(databaseSizeBeforeImport + 2);
+    }
+
+    @Test
+    @Transactional
+    @WithMockUser(authorities = AuthoritiesConstants.ADMIN)
+    void importInvalidAppVersions() throws Exception {
+        int databaseSizeBeforeImport = appVersionRepository.findAll().size();
+        String csv = String.join("\n", "id;major;type", ";1;PORTABLE", ";one;PORTABLE");
+
+        restAppVersionMockMvc
+            .perform(post("/api/admin/app-versions/import").contentType("text/csv").content(csv))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.message").value("error.importinvalid"))
+            .andExpect(jsonPath("$.title").value(startsWith("Line 3: ")));
+
+        restAppVersionMockMvc
+            .perform(post("/api/admin/app-versions/import").contentType("text/csv").content("id;name\n;1"))
+            .andExpect(status().isBadRequest())
+            .andExpect(jsonPath("$.title").value("Line 1: unknown column name"));
+
+        // Nothing has been imported
+        assertThat(appVersionRepository.findAll()).hasSize(databaseSizeBeforeImport);
+    }
 }
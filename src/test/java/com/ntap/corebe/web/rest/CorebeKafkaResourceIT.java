@@ -2,11 +2,16 @@ package com.ntap.corebe.web.rest;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.fail;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ntap.corebe.config.ApplicationProperties;
 import com.ntap.corebe.config.KafkaProperties;
+import com.ntap.corebe.service.KafkaFanOutHub;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import java.time.Duration;
 import java.util.Collections;
 import java.util.HashMap;
@@ -58,7 +63,13 @@ class CorebeKafkaResourceIT {
         consumerProps.put("client.id", "default-client");
         kafkaProperties.setConsumer(consumerProps);
 
-        CorebeKafkaResource kafkaResource = new CorebeKafkaResource(kafkaProperties);
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        CorebeKafkaResource kafkaResource = new CorebeKafkaResource(
+            kafkaProperties,
+            applicationProperties,
+            new ObjectMapper(),
+            new KafkaFanOutHub(kafkaProperties, applicationProperties, new SimpleMeterRegistry())
+        );
 
         restMockMvc = MockMvcBuilders.standaloneSetup(kafkaResource).build();
     }
@@ -66,7 +77,7 @@ class CorebeKafkaResourceIT {
     @Test
     void producesMessages() throws Exception {
         restMockMvc
-            .perform(post("/api/corebe-kafka/publish/topic-produce?message=value-produce"))
+            .perform(asyncDispatch(restMockMvc.perform(post("/api/corebe-kafka/publish/topic-produce?message=value-produce")).andReturn()))
             .andExpect(status().isOk())
             .andExpect(content().contentType(MediaType.APPLICATION_JSON));
 
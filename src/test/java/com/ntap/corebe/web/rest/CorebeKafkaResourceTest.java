@@ -0,0 +1,300 @@
+package com.ntap.corebe.web.rest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.entry;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ntap.corebe.config.ApplicationProperties;
+import com.ntap.corebe.config.KafkaProperties;
+import com.ntap.corebe.service.KafkaFanOutHub;
+import com.ntap.corebe.web.rest.vm.KafkaRecordVM;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.MockProducer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Unit tests of the publishes of {@link CorebeKafkaResource}, acknowledged by a {@link MockProducer}, and of the
+ * server-sent events of its streams.
+ */
+class CorebeKafkaResourceTest {
+
+    private static final int MAX_IN_FLIGHT_PUBLISHES = 2;
+
+    private static final int MAX_BATCH_SIZE = 3;
+
+    private MockProducer<String, String> producer;
+
+    private MockMvc restMockMvc;
+
+    @BeforeEach
+    void setup() {
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getKafka().setMaxInFlightPublishes(MAX_IN_FLIGHT_PUBLISHES);
+        applicationProperties.getKafka().setMaxBatchSize(MAX_BATCH_SIZE);
+        producer = new MockProducer<>(false, new StringSerializer(), new StringSerializer());
+        CorebeKafkaResource kafkaResource = new CorebeKafkaResource(
+            applicationProperties,
+            new ObjectMapper(),
+            new KafkaFanOutHub(new KafkaProperties(), applicationProperties, new SimpleMeterRegistry()),
+            producer
+        );
+        restMockMvc = MockMvcBuilders.standaloneSetup(kafkaResource).build();
+    }
+
+    @Test
+    void publishesAnswerOnceAcknowledged() throws Exception {
+        MvcResult mvcResult = restMockMvc
+            .perform(post("/api/corebe-kafka/publish/topic-produce?message=value-produce&key=key-produce"))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        assertThat(producer.history()).singleElement().matches(record -> "key-produce".equals(record.key()));
+
+        producer.completeNext();
+
+        restMockMvc
+            .perform(asyncDispatch(mvcResult))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.topic").value("topic-produce"))
+            .andExpect(jsonPath("$.offset").value(0));
+    }
+
+    @Test
+    void publishesBeyondTheInFlightLimitAreRejected() throws Exception {
+        MvcResult mvcResult = restMockMvc
+            .perform(
+                post("/api/corebe-kafka/publish/topic-produce/batch")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(List.of(new KafkaRecordVM(null, "a"), new KafkaRecordVM(null, "b"))))
+            )
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+        restMockMvc
+            .perform(post("/api/corebe-kafka/publish/topic-produce?message=value-produce"))
+            .andExpect(status().isServiceUnavailable());
+
+        producer.errorNext(new RuntimeException("Broker not available"));
+        producer.errorNext(new RuntimeException("Broker not available"));
+        restMockMvc
+            .perform(asyncDispatch(mvcResult))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$[0].error").value("Broker not available"))
+            .andExpect(jsonPath("$[1].error").value("Broker not available"));
+
+        // the failed publishes are no longer in flight
+        restMockMvc
+            .perform(post("/api/corebe-kafka/publish/topic-produce?message=value-produce"))
+            .andExpect(request().asyncStarted());
+    }
+
+    @Test
+    void batchesAnswerOnceAllRecordsAreAcknowledged() throws Exception {
+        MvcResult mvcResult = restMockMvc
+            .perform(
+                post("/api/corebe-kafka/publish/topic-produce/batch")
+                    .contentType(MediaType.APPLICATION_NDJSON)
+                    .content("{\"key\":\"key-1\",\"value\":\"value-1\"}\n\n{\"value\":\"value-2\"}\n")
+            )
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        // both records are sent before any acknowledgement
+        assertThat(producer.history()).extracting(ProducerRecord::value).containsExactly("value-1", "value-2");
+
+        producer.completeNext();
+        // not answered until the last record is acknowledged
+        assertThatThrownBy(() -> mvcResult.getAsyncResult(100)).isInstanceOf(IllegalStateException.class);
+        producer.errorNext(new RuntimeException("Broker not available"));
+
+        restMockMvc
+            .perform(asyncDispatch(mvcResult))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(2))
+            .andExpect(jsonPath("$[0].index").value(0))
+            .andExpect(jsonPath("$[0].offset").value(0))
+            .andExpect(jsonPath("$[0].error").isEmpty())
+            .andExpect(jsonPath("$[1].index").value(1))
+            .andExpect(jsonPath("$[1].offset").isEmpty())
+            .andExpect(jsonPath("$[1].error").value("Broker not available"));
+    }
+
+    @Test
+    void invalidBatchesAreRejected() throws Exception {
+        restMockMvc
+            .perform(
+                post("/api/corebe-kafka/publish/topic-produce/batch")
+                    .contentType(MediaType.APPLICATION_NDJSON)
+                    .content("{\"value\":\"value-1\"}\nnot-a-record\n")
+            )
+            .andExpect(status().isBadRequest());
+
+        restMockMvc
+            .perform(
+                post("/api/corebe-kafka/publish/topic-produce/batch")
+                    .contentType(MediaType.APPLICATION_NDJSON)
+                    .content("{\"value\":\"a\"}\n{\"value\":\"b\"}\n{\"value\":\"c\"}\n{\"value\":\"d\"}\n")
+            )
+            .andExpect(status().isBadRequest());
+
+        restMockMvc
+            .perform(
+                post("/api/corebe-kafka/publish/topic-produce/batch")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content("[{\"value\":\"a\"},null]")
+            )
+            .andExpect(status().isBadRequest());
+
+        restMockMvc
+            .perform(
+                post("/api/corebe-kafka/publish/topic-produce/batch")
+                    .contentType(MediaType.APPLICATION_NDJSON)
+                    .content("{\"value\":\"a\"}\nnull\n")
+            )
+            .andExpect(status().isBadRequest());
+
+        assertThat(producer.history()).isEmpty();
+    }
+
+    @Test
+    void batchesBeyondTheInFlightLimitAreRejected() throws Exception {
+        // within the batch size, but not within the publishes in flight
+        restMockMvc
+            .perform(
+                post("/api/corebe-kafka/publish/topic-produce/batch")
+                    .contentType(MediaType.APPLICATION_NDJSON)
+                    .content("{\"value\":\"a\"}\n{\"value\":\"b\"}\n{\"value\":\"c\"}\n")
+            )
+            .andExpect(status().isServiceUnavailable());
+
+        assertThat(producer.history()).isEmpty();
+    }
+
+    @Test
+    void batchedStreamsSendBoundedFrames() throws Exception {
+        RecordingSseEmitter emitter = new RecordingSseEmitter();
+        CorebeKafkaResource.SseSubscriber subscriber = new CorebeKafkaResource.SseSubscriber(
+            emitter,
+            true,
+            2,
+            16,
+            Duration.ofHours(1),
+            Map.of()
+        );
+
+        // frames of at most 2 records and 16 characters
+        subscriber.onRecords(records("value-0", "value-1", "value-2", "value-long-3", "4"));
+
+        assertThat(emitter.events)
+            .containsExactly(
+                "id:topic-consume-0-1\nevent:records\ndata:[\"value-0\",\"value-1\"]\n\n",
+                "id:topic-consume-0-2\nevent:records\ndata:[\"value-2\"]\n\n",
+                "id:topic-consume-0-4\nevent:records\ndata:[\"value-long-3\",\"4\"]\n\n"
+            );
+    }
+
+    @Test
+    void streamsSendHeartbeatsOnlyWhenIdle() throws Exception {
+        RecordingSseEmitter emitter = new RecordingSseEmitter();
+        CorebeKafkaResource.SseSubscriber busySubscriber = new CorebeKafkaResource.SseSubscriber(
+            emitter,
+            false,
+            2,
+            10,
+            Duration.ofHours(1),
+            Map.of()
+        );
+
+        busySubscriber.onRecords(records("value-0"));
+        busySubscriber.onRecords(List.of());
+        assertThat(emitter.events).containsExactly("id:topic-consume-0-0\ndata:value-0\n\n");
+
+        emitter.events.clear();
+        CorebeKafkaResource.SseSubscriber idleSubscriber = new CorebeKafkaResource.SseSubscriber(
+            emitter,
+            false,
+            2,
+            10,
+            Duration.ZERO,
+            Map.of()
+        );
+
+        idleSubscriber.onRecords(List.of());
+        assertThat(emitter.events).containsExactly(":\n\n");
+    }
+
+    @Test
+    void eventIdsHoldTheLastOffsetOfEveryPartition() throws Exception {
+        RecordingSseEmitter emitter = new RecordingSseEmitter();
+        TopicPartition resumedPartition = new TopicPartition("topic-consume", 1);
+        CorebeKafkaResource.SseSubscriber subscriber = new CorebeKafkaResource.SseSubscriber(
+            emitter,
+            false,
+            2,
+            10,
+            Duration.ofHours(1),
+            Map.of(resumedPartition, 41L)
+        );
+
+        subscriber.onRecords(records("value-0"));
+
+        assertThat(emitter.events).containsExactly("id:topic-consume-1-41,topic-consume-0-0\ndata:value-0\n\n");
+        assertThat(CorebeKafkaResource.parseEventId("topic-consume-1-41,topic-consume-0-0"))
+            .containsExactly(entry(resumedPartition, 41L), entry(new TopicPartition("topic-consume", 0), 0L));
+    }
+
+    @Test
+    void invalidLastEventIdsAreRejected() throws Exception {
+        restMockMvc
+            .perform(get("/api/corebe-kafka/consume?topic=topic-consume").header("Last-Event-ID", "topic-consume-0"))
+            .andExpect(status().isBadRequest());
+        restMockMvc
+            .perform(get("/api/corebe-kafka/consume?topic=topic-consume").header("Last-Event-ID", "topic-consume-a-1"))
+            .andExpect(status().isBadRequest());
+    }
+
+    private static List<ConsumerRecord<String, String>> records(String... values) {
+        List<ConsumerRecord<String, String>> records = new ArrayList<>();
+        for (String value : values) {
+            records.add(new ConsumerRecord<>("topic-consume", 0, records.size(), null, value));
+        }
+        return records;
+    }
+
+    /**
+     * Renders the events sent, as written to the response.
+     */
+    private static class RecordingSseEmitter extends SseEmitter {
+
+        private final ObjectMapper objectMapper = new ObjectMapper();
+
+        private final List<String> events = new ArrayList<>();
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            StringBuilder event = new StringBuilder();
+            for (DataWithMediaType data : builder.build()) {
+                event.append(data.getData() instanceof String ? data.getData() : objectMapper.writeValueAsString(data.getData()));
+            }
+            events.add(event.toString());
+        }
+    }
+}